@@ -0,0 +1,81 @@
+package com.whatstheplan.users.benchmark;
+
+import com.whatstheplan.users.model.ActivityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posting lists shaped like the activity index: users numbered densely, each interested in a few activities and
+ * living in one of a handful of cities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ActivityBitmapIndexBenchmark {
+
+    private static final int CITIES = 50;
+    private static final int ACTIVITIES_PER_USER = 4;
+
+    @Param({"1000000"})
+    private int usersCount;
+
+    private RoaringBitmap[] byActivity;
+    private RoaringBitmap[] byCity;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        byActivity = new RoaringBitmap[ActivityType.values().length];
+        byCity = new RoaringBitmap[CITIES];
+        Arrays.setAll(byActivity, i -> new RoaringBitmap());
+        Arrays.setAll(byCity, i -> new RoaringBitmap());
+        for (int ordinal = 0; ordinal < usersCount; ordinal++) {
+            for (int i = 0; i < ACTIVITIES_PER_USER; i++) {
+                byActivity[random.nextInt(byActivity.length)].add(ordinal);
+            }
+            byCity[random.nextInt(CITIES)].add(ordinal);
+        }
+        Arrays.stream(byActivity).forEach(RoaringBitmap::runOptimize);
+        Arrays.stream(byCity).forEach(RoaringBitmap::runOptimize);
+        long bytes = Arrays.stream(byActivity).mapToLong(RoaringBitmap::getLongSizeInBytes).sum()
+                + Arrays.stream(byCity).mapToLong(RoaringBitmap::getLongSizeInBytes).sum();
+        System.out.printf("%nPosting lists for %d users take %d KB%n", usersCount, bytes / 1024);
+    }
+
+    @Benchmark
+    public RoaringBitmap anyOfTwoActivities() {
+        return FastAggregation.or(List.of(byActivity[0], byActivity[36]).iterator());
+    }
+
+    @Benchmark
+    public RoaringBitmap allOfTwoActivities() {
+        return FastAggregation.and(List.of(byActivity[0], byActivity[36]).iterator());
+    }
+
+    @Benchmark
+    public RoaringBitmap anyOfThreeActivitiesInCity() {
+        RoaringBitmap matching = FastAggregation.or(List.of(byActivity[0], byActivity[11], byActivity[36]).iterator());
+        matching.and(byCity[7]);
+        return matching;
+    }
+}
@@ -0,0 +1,52 @@
+package com.whatstheplan.users.benchmark;
+
+import com.whatstheplan.users.model.ActivityType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActivityTypeBenchmark {
+
+    @Param({"SOCCER", "HIKING", "PAINTING"})
+    private ActivityType activityType;
+
+    private String name;
+    private List<String> allNames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        name = activityType.getName();
+        allNames = BenchmarkFixtures.activityNames(ActivityType.values().length);
+    }
+
+    @Benchmark
+    public ActivityType fromName() {
+        return ActivityType.from(name);
+    }
+
+    @Benchmark
+    public void fromAllNames(Blackhole blackhole) {
+        for (String activityName : allNames) {
+            blackhole.consume(ActivityType.from(activityName));
+        }
+    }
+}
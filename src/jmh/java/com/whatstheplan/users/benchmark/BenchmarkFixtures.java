@@ -0,0 +1,153 @@
+package com.whatstheplan.users.benchmark;
+
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.AuthenticatedUser;
+import com.whatstheplan.users.model.projection.BasicUserView;
+import com.whatstheplan.users.model.projection.UserProfileView;
+import com.whatstheplan.users.model.response.BasicUserResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+final class BenchmarkFixtures {
+
+    private static final String[] FIRST_NAMES = {
+            "Alex", "Ana", "Carlos", "Chloe", "David", "Elena", "Hugo", "Irene", "Javier", "Julia",
+            "Laura", "Lucas", "Maria", "Mateo", "Noah", "Olivia", "Pablo", "Sara", "Sofia", "Tom"};
+    private static final String[] SURNAMES = {
+            "Garcia", "Smith", "Lopez", "Martin", "Brown", "Sanchez", "Wilson", "Perez", "Taylor", "Gomez",
+            "Moore", "Diaz", "Clark", "Ruiz", "Lewis", "Moreno", "Walker", "Alonso", "Young", "Navarro"};
+
+    static final UUID USER_ID = UUID.fromString("6c1b6f8e-3f4a-4a57-9d0b-2b0f7a4d3c21");
+    static final String EMAIL = "john.doe@example.com";
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtAuthenticationToken authentication() {
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject(USER_ID.toString())
+                .claim("email", EMAIL)
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+        return new JwtAuthenticationToken(jwt, List.of(new SimpleGrantedAuthority("ROLE_user")));
+    }
+
+    static AuthenticatedUser authenticatedUser() {
+        return new AuthenticatedUser(USER_ID, EMAIL);
+    }
+
+    static List<ActivityType> activities(int count) {
+        return Arrays.stream(ActivityType.values())
+                .limit(count)
+                .toList();
+    }
+
+    static List<String> activityNames(int count) {
+        return activities(count).stream()
+                .map(ActivityType::getName)
+                .toList();
+    }
+
+    static BasicUserView basicUserView() {
+        return new BasicUserView() {
+            @Override
+            public UUID getId() {
+                return USER_ID;
+            }
+
+            @Override
+            public String getUsername() {
+                return "john_doe";
+            }
+
+            @Override
+            public String getEmail() {
+                return EMAIL;
+            }
+        };
+    }
+
+    static UserProfileView userProfileView(int activityCount) {
+        Set<ActivityType> activities = EnumSet.noneOf(ActivityType.class);
+        activities.addAll(activities(activityCount));
+        return new UserProfileView() {
+            @Override
+            public UUID getId() {
+                return USER_ID;
+            }
+
+            @Override
+            public String getUsername() {
+                return "john_doe";
+            }
+
+            @Override
+            public String getEmail() {
+                return EMAIL;
+            }
+
+            @Override
+            public String getFirstName() {
+                return "John";
+            }
+
+            @Override
+            public String getLastName() {
+                return "Doe";
+            }
+
+            @Override
+            public String getCity() {
+                return "Madrid";
+            }
+
+            @Override
+            public Set<ActivityType> getActivities() {
+                return activities;
+            }
+        };
+    }
+
+    /**
+     * Users with realistic-looking, unique usernames: a first name, a surname and a number, in shuffled order.
+     */
+    static List<BasicUserResponse> basicUsers(int count) {
+        Random random = new Random(42);
+        List<BasicUserResponse> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String username = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]
+                    + (random.nextBoolean() ? "_" : "")
+                    + SURNAMES[random.nextInt(SURNAMES.length)]
+                    + i;
+            users.add(BasicUserResponse.builder()
+                    .id(new UUID(random.nextLong(), random.nextLong()))
+                    .username(username)
+                    .email(username.toLowerCase(Locale.ROOT) + "@example.com")
+                    .build());
+        }
+        Collections.shuffle(users, random);
+        return users;
+    }
+
+    static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,78 @@
+package com.whatstheplan.users.benchmark;
+
+import com.whatstheplan.users.controller.UserControllerAdvice;
+import com.whatstheplan.users.exceptions.UserNotExistsException;
+import com.whatstheplan.users.model.response.ErrorResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of answering an unknown user from deep inside a request, comparing an exception that fills its stack trace
+ * and a fresh error body with the stackless exception and cached body the advice uses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorSignallingBenchmark {
+
+    // Roughly the number of frames between the servlet container and a service method.
+    @Param({"120"})
+    private int stackDepth;
+
+    private UserControllerAdvice advice;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        advice = new UserControllerAdvice(Duration.ofSeconds(10));
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> stackTraceException() {
+        try {
+            return throwAt(stackDepth,
+                    () -> new IllegalStateException("User not found with userId: " + UUID.randomUUID()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorResponse("User does not exists."));
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> stacklessException() {
+        try {
+            return throwAt(stackDepth,
+                    () -> new UserNotExistsException("User not found with userId: " + UUID.randomUUID(), null));
+        } catch (UserNotExistsException e) {
+            return advice.handleValidationExceptions(e);
+        }
+    }
+
+    private static ResponseEntity<ErrorResponse> throwAt(int depth, ExceptionFactory exception) {
+        if (depth == 0) {
+            throw exception.create();
+        }
+        return throwAt(depth - 1, exception);
+    }
+
+    private interface ExceptionFactory {
+        RuntimeException create();
+    }
+}
@@ -0,0 +1,77 @@
+package com.whatstheplan.users.benchmark;
+
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.projection.BasicUserView;
+import com.whatstheplan.users.model.projection.UserProfileView;
+import com.whatstheplan.users.model.request.UserProfileRequest;
+import com.whatstheplan.users.model.response.BasicUserResponse;
+import com.whatstheplan.users.model.response.UserResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    @Param({"3", "20", "41"})
+    private int preferencesCount;
+
+    private User user;
+    private UserProfileView userProfileView;
+    private Set<ActivityType> activities;
+    private BasicUserView basicUserView;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        user = UserProfileRequest.builder()
+                .username("john_doe")
+                .firstName("John")
+                .lastName("Doe")
+                .city("Madrid")
+                .preferences(BenchmarkFixtures.activityNames(preferencesCount))
+                .build()
+                .toEntity(BenchmarkFixtures.authenticatedUser());
+
+        userProfileView = BenchmarkFixtures.userProfileView(preferencesCount);
+        activities = userProfileView.getActivities();
+        basicUserView = BenchmarkFixtures.basicUserView();
+    }
+
+    @Benchmark
+    public UserResponse userResponseFromEntity() {
+        return UserResponse.from(user);
+    }
+
+    @Benchmark
+    public UserResponse userResponseFromProjection() {
+        return UserResponse.from(userProfileView, activities);
+    }
+
+    @Benchmark
+    public BasicUserResponse basicUserResponseFromEntity() {
+        return BasicUserResponse.from(user);
+    }
+
+    @Benchmark
+    public BasicUserResponse basicUserResponseFromProjection() {
+        return BasicUserResponse.from(basicUserView);
+    }
+}
@@ -0,0 +1,81 @@
+package com.whatstheplan.users.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.whatstheplan.users.model.response.BasicUserResponse;
+import com.whatstheplan.users.model.response.BasicUsersBatchResponse;
+import com.whatstheplan.users.model.response.UserResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"20"})
+    private int preferencesCount;
+
+    @Param({"100"})
+    private int batchSize;
+
+    private ObjectWriter writer;
+    private UserResponse userResponse;
+    private BasicUserResponse basicUserResponse;
+    private BasicUsersBatchResponse batchResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+        userResponse = UserResponse.from(BenchmarkFixtures.userProfileView(preferencesCount),
+                BenchmarkFixtures.userProfileView(preferencesCount).getActivities());
+        basicUserResponse = BasicUserResponse.from(BenchmarkFixtures.basicUserView());
+
+        Map<UUID, BasicUserResponse> users = new LinkedHashMap<>();
+        for (int i = 0; i < batchSize; i++) {
+            users.put(UUID.randomUUID(), BasicUserResponse.builder()
+                    .username("user_" + i)
+                    .email("user_" + i + "@example.com")
+                    .build());
+        }
+        batchResponse = BasicUsersBatchResponse.builder()
+                .users(users)
+                .missing(List.of(UUID.randomUUID()))
+                .build();
+    }
+
+    @Benchmark
+    public byte[] userResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(userResponse);
+    }
+
+    @Benchmark
+    public byte[] basicUserResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(basicUserResponse);
+    }
+
+    @Benchmark
+    public byte[] basicUsersBatchResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(batchResponse);
+    }
+}
@@ -0,0 +1,48 @@
+package com.whatstheplan.users.benchmark;
+
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.request.UserProfileRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserProfileRequestBenchmark {
+
+    @Param({"3", "20", "41"})
+    private int preferencesCount;
+
+    private UserProfileRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        request = UserProfileRequest.builder()
+                .username("john_doe")
+                .firstName("John")
+                .lastName("Doe")
+                .city("Madrid")
+                .preferences(BenchmarkFixtures.activityNames(preferencesCount))
+                .build();
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return request.toEntity(BenchmarkFixtures.authenticatedUser());
+    }
+}
@@ -0,0 +1,68 @@
+package com.whatstheplan.users.benchmark;
+
+import com.whatstheplan.users.model.response.BasicUserResponse;
+import com.whatstheplan.users.utils.RadixTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete lookups against an index of {@code usersCount} users, one per keystroke depth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class UsernamePrefixIndexBenchmark {
+
+    @Param({"1000000"})
+    private int usersCount;
+
+    @Param({"1", "3", "6"})
+    private int prefixLength;
+
+    @Param({"10"})
+    private int limit;
+
+    private RadixTrie<BasicUserResponse> trie;
+    private String[] prefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<BasicUserResponse> users = BenchmarkFixtures.basicUsers(usersCount);
+        long before = BenchmarkFixtures.usedHeapAfterGc();
+        trie = new RadixTrie<>();
+        users.forEach(user -> trie.put(user.getUsername().toLowerCase(Locale.ROOT), user));
+        long footprint = BenchmarkFixtures.usedHeapAfterGc() - before;
+        System.out.printf("%nIndex of %d usernames retains ~%d MB on top of the user objects (%d bytes per user)%n",
+                trie.size(), footprint / (1024 * 1024), footprint / trie.size());
+
+        prefixes = new String[1024];
+        for (int i = 0; i < prefixes.length; i++) {
+            String username = users.get((int) ((long) i * users.size() / prefixes.length)).getUsername();
+            prefixes[i] = username.substring(0, Math.min(prefixLength, username.length())).toLowerCase(Locale.ROOT);
+        }
+    }
+
+    @Benchmark
+    public List<BasicUserResponse> findByPrefix() {
+        String prefix = prefixes[next++ & (prefixes.length - 1)];
+        return trie.findByPrefix(prefix, limit);
+    }
+}
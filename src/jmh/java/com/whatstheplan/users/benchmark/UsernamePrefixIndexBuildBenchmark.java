@@ -0,0 +1,52 @@
+package com.whatstheplan.users.benchmark;
+
+import com.whatstheplan.users.model.response.BasicUserResponse;
+import com.whatstheplan.users.utils.RadixTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to load the index on startup. Run with the default {@code -prof gc}: {@code gc.alloc.rate.norm} is the
+ * total allocation of one load, an upper bound for the footprint printed by {@link UsernamePrefixIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class UsernamePrefixIndexBuildBenchmark {
+
+    @Param({"1000000"})
+    private int usersCount;
+
+    private List<BasicUserResponse> users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        users = BenchmarkFixtures.basicUsers(usersCount);
+    }
+
+    @Benchmark
+    public RadixTrie<BasicUserResponse> build() {
+        RadixTrie<BasicUserResponse> trie = new RadixTrie<>();
+        for (BasicUserResponse user : users) {
+            trie.put(user.getUsername().toLowerCase(Locale.ROOT), user);
+        }
+        return trie;
+    }
+}
@@ -0,0 +1,48 @@
+package com.whatstheplan.users.benchmark;
+
+import com.whatstheplan.users.model.AuthenticatedUser;
+import com.whatstheplan.users.utils.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtilsBenchmark {
+
+    private Instant lastModifiedDate;
+
+    private JwtAuthenticationToken authentication;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        authentication = BenchmarkFixtures.authentication();
+        lastModifiedDate = Instant.now();
+    }
+
+    @Benchmark
+    public AuthenticatedUser authenticatedUser() {
+        return AuthenticatedUser.from(authentication);
+    }
+
+    @Benchmark
+    public String eTag() {
+        return Utils.eTag(BenchmarkFixtures.USER_ID, lastModifiedDate);
+    }
+}
@@ -0,0 +1,30 @@
+package com.whatstheplan.users.config;
+
+import com.whatstheplan.users.model.AuthenticatedUser;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link AuthenticatedUser} controller parameters from the authenticated principal of the request.
+ */
+public class AuthenticatedUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.getParameterType() == AuthenticatedUser.class;
+    }
+
+    @Override
+    public AuthenticatedUser resolveArgument(MethodParameter parameter,
+                                             ModelAndViewContainer mavContainer,
+                                             NativeWebRequest webRequest,
+                                             WebDataBinderFactory binderFactory) {
+        return AuthenticatedUser.from(webRequest.getUserPrincipal() instanceof Authentication authentication
+                ? authentication
+                : null);
+    }
+}
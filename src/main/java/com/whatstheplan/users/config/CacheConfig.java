@@ -0,0 +1,59 @@
+package com.whatstheplan.users.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS_CACHE = "users";
+    public static final String USERS_INFO_CACHE = "users-info";
+    public static final String USERS_VERSIONS_CACHE = "users-versions";
+    public static final List<String> USER_CACHES = List.of(USERS_CACHE, USERS_INFO_CACHE, USERS_VERSIONS_CACHE);
+
+    @Bean
+    public CacheManager cacheManager(@Value("${users.cache.maximum-size}") long maximumSize,
+                                     @Value("${users.cache.ttl}") Duration ttl,
+                                     @Value("${users.cache.negative-ttl}") Duration negativeTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(expiry(ttl, negativeTtl))
+                .recordStats());
+        cacheManager.setCacheNames(USER_CACHES);
+        return cacheManager;
+    }
+
+    /**
+     * Lookups of unknown users are cached as {@link NullValue} and expire after the (shorter) negative TTL.
+     */
+    private static Expiry<Object, Object> expiry(Duration ttl, Duration negativeTtl) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, Object value, long currentTime) {
+                return value == NullValue.INSTANCE ? negativeTtl.toNanos() : ttl.toNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+}
@@ -0,0 +1,129 @@
+package com.whatstheplan.users.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authenticates bearer tokens through {@link JwtAuthenticationProvider}, and remembers the result per token until
+ * the token expires. Clients send the same token for up to an hour, so most requests skip parsing, the signature
+ * check and the authorities conversion. Tokens are kept only as SHA-256 hashes, and failures are never cached.
+ */
+public class CachingJwtAuthenticationManager implements AuthenticationManager {
+
+    public static final String CACHE_NAME = "jwt-authentications";
+
+    private final JwtAuthenticationProvider provider;
+    private final Cache<String, JwtAuthenticationToken> authentications;
+    private final Timer verified;
+    private final Timer rejected;
+
+    public CachingJwtAuthenticationManager(JwtDecoder decoder,
+                                           Converter<Jwt, ? extends AbstractAuthenticationToken> converter,
+                                           long maximumSize,
+                                           MeterRegistry meterRegistry) {
+        this.provider = new JwtAuthenticationProvider(decoder);
+        this.provider.setJwtAuthenticationConverter(converter);
+        this.authentications = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(untilTokenExpires())
+                .recordStats()
+                .build();
+        this.verified = verificationTimer(meterRegistry, "verified");
+        this.rejected = verificationTimer(meterRegistry, "rejected");
+        CaffeineCacheMetrics.monitor(meterRegistry, authentications, CACHE_NAME);
+        Gauge.builder("users.security.jwt.cache.hit-rate", authentications, cache -> cache.stats().hitRate())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!(authentication instanceof BearerTokenAuthenticationToken bearer)) {
+            return provider.authenticate(authentication);
+        }
+
+        String key = hash(bearer.getToken());
+        JwtAuthenticationToken cached = authentications.getIfPresent(key);
+        if (cached != null) {
+            // A copy, so that the details of this request do not leak into the other requests of the token.
+            JwtAuthenticationToken copy = new JwtAuthenticationToken(cached.getToken(), cached.getAuthorities(),
+                    cached.getName());
+            copy.setDetails(bearer.getDetails());
+            return copy;
+        }
+
+        long start = System.nanoTime();
+        Authentication result;
+        try {
+            result = provider.authenticate(bearer);
+        } catch (AuthenticationException e) {
+            rejected.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        verified.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (result instanceof JwtAuthenticationToken token && token.getToken().getExpiresAt() != null) {
+            authentications.put(key, token);
+        }
+        return result;
+    }
+
+    private static Expiry<String, JwtAuthenticationToken> untilTokenExpires() {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String key, JwtAuthenticationToken value, long currentTime) {
+                Duration remaining = Duration.between(Instant.now(), value.getToken().getExpiresAt());
+                return Math.max(0, remaining.toNanos());
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, JwtAuthenticationToken value, long currentTime,
+                                          long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String key, JwtAuthenticationToken value, long currentTime,
+                                        long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("users.security.jwt.verification")
+                .description("Time spent parsing, verifying and converting bearer tokens that were not cached")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.whatstheplan.users.config;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import com.nimbusds.jose.util.ResourceRetriever;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtDecoderInitializationException;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decodes tokens of the configured issuer like the decoder Spring Boot would build from {@code issuer-uri}, but
+ * discovers the JWKS endpoint and loads the keys at startup, and refreshes them in the background ahead of their
+ * expiry, so no request waits on key discovery. If the issuer is unreachable at startup, discovery is retried on
+ * the first token instead.
+ */
+@Slf4j
+public class IssuerJwtDecoder implements JwtDecoder, SmartLifecycle {
+
+    private static final String DISCOVERY_PATH = "/.well-known/openid-configuration";
+    private static final int HTTP_TIMEOUT_MILLIS = 2_000;
+
+    private final String issuerUri;
+    private final Duration keysTtl;
+    private final Duration refreshAhead;
+    private final ResourceRetriever retriever = new DefaultResourceRetriever(HTTP_TIMEOUT_MILLIS, HTTP_TIMEOUT_MILLIS,
+            JWKSourceBuilder.DEFAULT_HTTP_SIZE_LIMIT);
+    private final Lock initialization = new ReentrantLock();
+
+    private volatile NimbusJwtDecoder delegate;
+    private JWKSource<SecurityContext> keys;
+    private volatile boolean running;
+
+    public IssuerJwtDecoder(String issuerUri, Duration keysTtl, Duration refreshAhead) {
+        this.issuerUri = issuerUri;
+        this.keysTtl = keysTtl;
+        this.refreshAhead = refreshAhead;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        return delegate().decode(token);
+    }
+
+    @Override
+    public void start() {
+        long start = System.nanoTime();
+        try {
+            delegate();
+            keys.get(new JWKSelector(new JWKMatcher.Builder().build()), null);
+            log.info("Prefetched the signing keys of {} in {} ms", issuerUri, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.warn("Could not prefetch the signing keys of {}, retrying on the first token: {}", issuerUri,
+                    e.getMessage());
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (keys instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                log.warn("Could not stop refreshing the signing keys: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private NimbusJwtDecoder delegate() {
+        NimbusJwtDecoder decoder = delegate;
+        if (decoder != null) {
+            return decoder;
+        }
+        initialization.lock();
+        try {
+            if (delegate == null) {
+                delegate = build();
+            }
+            return delegate;
+        } finally {
+            initialization.unlock();
+        }
+    }
+
+    private NimbusJwtDecoder build() {
+        keys = JWKSourceBuilder.create(jwksUrl(), retriever)
+                .cache(keysTtl.toMillis(), JWKSourceBuilder.DEFAULT_CACHE_REFRESH_TIMEOUT)
+                .refreshAheadCache(refreshAhead.toMillis(), true)
+                .build();
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, keys));
+        // Claims are checked by the Spring validators below, as in the decoder Spring Boot configures.
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return decoder;
+    }
+
+    private URL jwksUrl() {
+        try {
+            URL discovery = URI.create(issuerUri.replaceAll("/$", "") + DISCOVERY_PATH).toURL();
+            Map<String, Object> configuration =
+                    JSONObjectUtils.parse(retriever.retrieveResource(discovery).getContent());
+            String issuer = JSONObjectUtils.getString(configuration, "issuer");
+            if (!issuerUri.equals(issuer)) {
+                throw new JwtDecoderInitializationException(
+                        "Discovery document of " + issuerUri + " names issuer " + issuer, null);
+            }
+            return URI.create(JSONObjectUtils.getString(configuration, "jwks_uri")).toURL();
+        } catch (IOException | ParseException | IllegalArgumentException e) {
+            throw new JwtDecoderInitializationException("Could not discover the JWKS endpoint of " + issuerUri, e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.whatstheplan.users.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/logsampling}: reads the request log sampling rates, sets one with
+ * {@code POST {"endpoint": "GET /users", "rate": 0.1}} and resets one with {@code DELETE ?endpoint=GET /users}.
+ */
+@Component
+@Endpoint(id = "logsampling")
+@RequiredArgsConstructor
+public class LogSamplingEndpoint {
+
+    private final RequestLogSampler sampler;
+
+    @ReadOperation
+    public Map<String, Object> rates() {
+        return sampler.describe();
+    }
+
+    @WriteOperation
+    public Map<String, Object> setRate(String endpoint, double rate) {
+        sampler.setRate(endpoint, rate);
+        return sampler.describe();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> resetRate(String endpoint) {
+        sampler.resetRate(endpoint);
+        return sampler.describe();
+    }
+}
@@ -0,0 +1,43 @@
+package com.whatstheplan.users.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class PublisherConfig {
+
+    public static final String BROKER_CIRCUIT_BREAKER = "rabbitmq";
+
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${users.publisher.circuit-breaker.failure-rate-threshold}") float failureRateThreshold,
+            @Value("${users.publisher.circuit-breaker.sliding-window-size}") int slidingWindowSize,
+            @Value("${users.publisher.circuit-breaker.slow-call-duration-threshold}") Duration slowCallDurationThreshold,
+            @Value("${users.publisher.circuit-breaker.wait-duration-in-open-state}") Duration waitDurationInOpenState) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallDurationThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(slidingWindowSize)
+                .waitDurationInOpenState(waitDurationInOpenState)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public CircuitBreaker brokerCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry) {
+        return circuitBreakerRegistry.circuitBreaker(BROKER_CIRCUIT_BREAKER);
+    }
+}
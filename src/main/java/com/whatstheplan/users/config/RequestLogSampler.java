@@ -0,0 +1,69 @@
+package com.whatstheplan.users.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which requests get their INFO and DEBUG lines logged, per endpoint such as {@code GET /users-info/{userId}}.
+ * Rates start from {@code users.logging.sampling} and can be changed at runtime through {@link LogSamplingEndpoint}.
+ */
+@Component
+public class RequestLogSampler {
+
+    private final double defaultRate;
+    private final Map<String, Double> configuredRates;
+    private final Map<String, Double> rates = new ConcurrentHashMap<>();
+
+    public RequestLogSampler(Environment environment,
+                             @Value("${users.logging.sampling.default-rate}") double defaultRate) {
+        this.defaultRate = checked(defaultRate);
+        this.configuredRates = Binder.get(environment)
+                .bind("users.logging.sampling.rates", Bindable.mapOf(String.class, Double.class))
+                .orElse(Map.of());
+        configuredRates.forEach(this::setRate);
+    }
+
+    public boolean sample(String endpoint) {
+        double rate = rates.getOrDefault(endpoint, defaultRate);
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    public void setRate(String endpoint, double rate) {
+        rates.put(endpoint, checked(rate));
+    }
+
+    /**
+     * Goes back to the configured rate of the endpoint, or to the default one.
+     */
+    public void resetRate(String endpoint) {
+        Double configured = configuredRates.get(endpoint);
+        if (configured == null) {
+            rates.remove(endpoint);
+        } else {
+            rates.put(endpoint, configured);
+        }
+    }
+
+    public Map<String, Object> describe() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("defaultRate", defaultRate);
+        description.put("rates", new TreeMap<>(rates));
+        return description;
+    }
+
+    private static double checked(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Sampling rate must be between 0 and 1, got " + rate);
+        }
+        return rate;
+    }
+}
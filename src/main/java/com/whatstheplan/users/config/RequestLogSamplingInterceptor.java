@@ -0,0 +1,50 @@
+package com.whatstheplan.users.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.MDC;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static com.whatstheplan.users.config.SampledRequestTurboFilter.SAMPLED_OUT_KEY;
+
+/**
+ * Tags the logs of each request with its endpoint, and marks requests left out of the sample so that
+ * {@link SampledRequestTurboFilter} drops their INFO and DEBUG lines before any message is formatted.
+ */
+@RequiredArgsConstructor
+public class RequestLogSamplingInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String ENDPOINT_KEY = "endpoint";
+
+    private final RequestLogSampler sampler;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern == null ? request.getRequestURI() : pattern);
+        MDC.put(ENDPOINT_KEY, endpoint);
+        if (!sampler.sample(endpoint)) {
+            MDC.put(SAMPLED_OUT_KEY, "true");
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        clear();
+    }
+
+    private static void clear() {
+        MDC.remove(ENDPOINT_KEY);
+        MDC.remove(SAMPLED_OUT_KEY);
+    }
+}
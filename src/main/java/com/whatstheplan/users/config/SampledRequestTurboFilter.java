@@ -0,0 +1,29 @@
+package com.whatstheplan.users.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Drops the application's INFO and DEBUG events of requests left out of the log sample. Turbo filters run before
+ * an event is created, so a dropped line costs neither the formatting of its arguments nor a slot in the async
+ * appender. Warnings and errors are always logged. Declared in {@code logback-spring.xml}.
+ */
+public class SampledRequestTurboFilter extends TurboFilter {
+
+    public static final String SAMPLED_OUT_KEY = "sampledOut";
+    private static final String APPLICATION_LOGGERS = "com.whatstheplan.users";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.WARN) || MDC.get(SAMPLED_OUT_KEY) == null
+                || !logger.getName().startsWith(APPLICATION_LOGGERS)) {
+            return FilterReply.NEUTRAL;
+        }
+        return FilterReply.DENY;
+    }
+}
@@ -1,5 +1,7 @@
 package com.whatstheplan.users.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -9,11 +11,14 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
+import java.time.Duration;
+
 import static org.springframework.security.config.Customizer.withDefaults;
 
 @Configuration
@@ -22,20 +27,34 @@ import static org.springframework.security.config.Customizer.withDefaults;
 public class SecurityConfig {
 
     @Bean
-    SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                            JwtDecoder jwtDecoder,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${users.security.jwt.cache.maximum-size}") long cacheSize)
+            throws Exception {
+        CachingJwtAuthenticationManager authenticationManager = new CachingJwtAuthenticationManager(jwtDecoder,
+                jwtAuthenticationConverter(), cacheSize, meterRegistry);
         http.authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/users", "/users/*").hasRole("user")
+                        .requestMatchers("/admin/**").hasRole("admin")
+                        .requestMatchers("/actuator/logsampling").hasRole("admin")
                         .anyRequest().authenticated())
                 .sessionManagement(config -> config.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .cors(withDefaults())
                 .csrf(AbstractHttpConfigurer::disable)
                 .oauth2ResourceServer((resourceServer) ->
-                        resourceServer.jwt(jwt ->
-                                jwt.jwtAuthenticationConverter(jwtAuthenticationConverter())));
+                        resourceServer.jwt(jwt -> jwt.authenticationManager(authenticationManager)));
         return http.build();
     }
 
+    @Bean
+    IssuerJwtDecoder jwtDecoder(@Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+                                @Value("${users.security.jwt.keys.ttl}") Duration keysTtl,
+                                @Value("${users.security.jwt.keys.refresh-ahead}") Duration refreshAhead) {
+        return new IssuerJwtDecoder(issuerUri, keysTtl, refreshAhead);
+    }
+
     private JwtAuthenticationConverter jwtAuthenticationConverter() {
         JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
         grantedAuthoritiesConverter.setAuthoritiesClaimName("cognito:groups");
@@ -0,0 +1,23 @@
+package com.whatstheplan.users.config;
+
+import com.whatstheplan.users.model.ActivityType;
+import org.springframework.core.convert.converter.Converter;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Binds request parameters to {@link ActivityType}s by the display names the profile endpoints use, such as
+ * {@code Food & Dining}, while still accepting constant names like {@code FOOD}.
+ */
+class StringToActivityTypeConverter implements Converter<String, ActivityType> {
+
+    @Override
+    public ActivityType convert(String source) {
+        String name = source.trim();
+        try {
+            return ActivityType.from(name);
+        } catch (NoSuchElementException e) {
+            return ActivityType.valueOf(name);
+        }
+    }
+}
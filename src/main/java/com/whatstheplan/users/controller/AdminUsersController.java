@@ -0,0 +1,191 @@
+package com.whatstheplan.users.controller;
+
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.MatchMode;
+import com.whatstheplan.users.model.response.UserImportResponse;
+import com.whatstheplan.users.services.ActivityIndexService;
+import com.whatstheplan.users.services.UserExportService;
+import com.whatstheplan.users.services.UserImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM_VALUE;
+
+@Slf4j
+@RestController
+@RequestMapping("/admin/users")
+@Tag(name = "Users Administration", description = "Operations restricted to administrators")
+public class AdminUsersController {
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    private final ActivityIndexService activityIndexService;
+    private final UserExportService userExportService;
+    private final UserImportService userImportService;
+    private final Duration exportTimeout;
+
+    public AdminUsersController(ActivityIndexService activityIndexService,
+                                UserExportService userExportService,
+                                UserImportService userImportService,
+                                @Value("${users.export.timeout}") Duration exportTimeout) {
+        this.activityIndexService = activityIndexService;
+        this.userExportService = userExportService;
+        this.userImportService = userImportService;
+        this.exportTimeout = exportTimeout;
+    }
+
+    @Operation(summary = "Export all users",
+            description = "Streams every user in ID order, either as NDJSON or as CSV with text/csv. If the download "
+                    + "is interrupted, pass the ID of the last user received as 'after' to resume from there.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Users streamed successfully",
+                    content = {@Content(mediaType = APPLICATION_NDJSON_VALUE), @Content(mediaType = TEXT_CSV_VALUE)}),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor supplied",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Caller is not an administrator",
+                    content = @Content)
+    })
+    @GetMapping(value = "/export", produces = {APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @Parameter(description = "ID of the last user already received")
+            @RequestParam(required = false) UUID after,
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = APPLICATION_NDJSON_VALUE) String accept,
+            WebRequest webRequest) {
+
+        // A full export outlasts the default async request timeout, which would cut it off midway.
+        WebAsyncUtils.getAsyncManager(webRequest).getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+        boolean csv = MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(mediaType -> mediaType.equalsTypeAndSubtype(TEXT_CSV));
+        log.info("Exporting users after {} as {}", after, csv ? "CSV" : "NDJSON");
+
+        StreamingResponseBody body = csv
+                ? outputStream -> userExportService.exportCsv(after, outputStream)
+                : outputStream -> userExportService.exportNdjson(after, outputStream);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users." + (csv ? "csv" : "ndjson") + "\"")
+                .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Operation(summary = "Stream the IDs of all users interested in some activities",
+            description = "Bulk variant for notification fan-out, served from an in-memory index. Returns every "
+                    + "matching user ID, either as NDJSON or as 16-byte big-endian UUIDs with "
+                    + "application/octet-stream. The number of IDs is sent in the X-Total-Count header.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Matching user IDs streamed successfully",
+                    content = {@Content(mediaType = APPLICATION_NDJSON_VALUE), @Content(mediaType = APPLICATION_OCTET_STREAM_VALUE)}),
+            @ApiResponse(responseCode = "400", description = "Invalid activities supplied",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Caller is not an administrator",
+                    content = @Content)
+    })
+    @GetMapping(value = "/by-activity/ids", produces = {APPLICATION_NDJSON_VALUE, APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamUserIdsByActivities(
+            @Parameter(description = "Activities the users must be interested in, by display or constant name",
+                    required = true)
+            @RequestParam
+            @NotEmpty(message = "At least one activity is mandatory.") Set<ActivityType> activities,
+            @Parameter(description = "Whether users must be interested in any or in all of the activities")
+            @RequestParam(defaultValue = "ANY") MatchMode match,
+            @Parameter(description = "City the users live in, ignoring case")
+            @RequestParam(required = false) String city,
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = APPLICATION_NDJSON_VALUE) String accept) {
+
+        ActivityIndexService.MatchingUsers matchingUsers = activityIndexService.find(activities, match, city);
+        log.info("Streaming {} user ids interested in {} of {} in {}", matchingUsers.count(), match, activities, city);
+
+        boolean binary = MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(mediaType -> mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_OCTET_STREAM));
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(matchingUsers.count()))
+                .contentType(binary ? MediaType.APPLICATION_OCTET_STREAM : MediaType.APPLICATION_NDJSON)
+                .body(binary ? writeBinary(matchingUsers) : writeNdjson(matchingUsers));
+    }
+
+    @Operation(summary = "Import users in bulk",
+            description = "Creates the users of an NDJSON or CSV body, as produced by the export, in one transaction "
+                    + "and queues their welcome emails. Rows that are invalid, repeated or clash with existing users "
+                    + "are skipped and reported back.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Users imported, possibly with rejected rows",
+                    content = @Content(schema = @Schema(implementation = UserImportResponse.class))),
+            @ApiResponse(responseCode = "400", description = "CSV header is missing columns or body is too large",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "Caller is not an administrator",
+                    content = @Content),
+            @ApiResponse(responseCode = "415", description = "Body is neither NDJSON nor CSV",
+                    content = @Content)
+    })
+    @PostMapping(value = "/import", consumes = {APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<UserImportResponse> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+
+        boolean csv = MediaType.parseMediaType(contentType).equalsTypeAndSubtype(TEXT_CSV);
+        log.info("Importing users from {}", csv ? "CSV" : "NDJSON");
+
+        UserImportResponse response = csv ? userImportService.importCsv(body) : userImportService.importNdjson(body);
+
+        log.info("Imported {} users, rejected {}", response.getImported(), response.getRejected());
+        return ResponseEntity.ok(response);
+    }
+
+    private static StreamingResponseBody writeNdjson(ActivityIndexService.MatchingUsers matchingUsers) {
+        return outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            IntIterator ordinals = matchingUsers.ordinals().getIntIterator();
+            while (ordinals.hasNext()) {
+                writer.write("{\"id\":\"" + matchingUsers.userId(ordinals.next()) + "\"}\n");
+            }
+            writer.flush();
+        };
+    }
+
+    private static StreamingResponseBody writeBinary(ActivityIndexService.MatchingUsers matchingUsers) {
+        return outputStream -> {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+            IntIterator ordinals = matchingUsers.ordinals().getIntIterator();
+            while (ordinals.hasNext()) {
+                UUID userId = matchingUsers.userId(ordinals.next());
+                output.writeLong(userId.getMostSignificantBits());
+                output.writeLong(userId.getLeastSignificantBits());
+            }
+            output.flush();
+        };
+    }
+}
@@ -1,25 +1,53 @@
 package com.whatstheplan.users.controller;
 
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.request.AvailabilityRequest;
+import com.whatstheplan.users.model.request.BasicUsersBatchRequest;
+import com.whatstheplan.users.model.response.AvailabilityResponse;
 import com.whatstheplan.users.model.response.BasicUserResponse;
+import com.whatstheplan.users.model.response.BasicUsersBatchResponse;
+import com.whatstheplan.users.model.response.BasicUsersPageResponse;
+import com.whatstheplan.users.model.response.UserSearchResponse;
+import com.whatstheplan.users.model.response.UsernameSuggestionResponse;
+import com.whatstheplan.users.services.AvailabilityService;
+import com.whatstheplan.users.services.UserSearchService;
 import com.whatstheplan.users.services.UserService;
+import com.whatstheplan.users.services.UsernameSearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
+
 @Slf4j
 @RestController
 @RequestMapping("/users-info")
@@ -28,13 +56,27 @@ import java.util.UUID;
 @Tag(name = "Basic User Info", description = "Retrieve basic information about users")
 public class BasicUsersInfoController {
 
+    private static final CacheControl BASIC_INFO_CACHE_CONTROL = CacheControl.maxAge(Duration.ofSeconds(60))
+            .cachePrivate()
+            .mustRevalidate();
+
+    public static final int DEFAULT_SEARCH_LIMIT = 10;
+    public static final int MAX_SEARCH_LIMIT = 50;
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final UserService userService;
+    private final UsernameSearchService usernameSearchService;
+    private final UserSearchService userSearchService;
+    private final AvailabilityService availabilityService;
 
     @Operation(summary = "Get basic user information by user ID",
             description = "Returns basic user details such as username, name, and other public profile info.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User information retrieved successfully",
                     content = @Content(schema = @Schema(implementation = BasicUserResponse.class))),
+            @ApiResponse(responseCode = "304", description = "User information not modified since the supplied ETag",
+                    content = @Content),
             @ApiResponse(responseCode = "404", description = "User not found",
                     content = @Content),
             @ApiResponse(responseCode = "400", description = "Invalid user ID supplied",
@@ -43,14 +85,149 @@ public class BasicUsersInfoController {
     @GetMapping("/{userId}")
     public ResponseEntity<BasicUserResponse> getUserBasicInfo(
             @Parameter(description = "UUID of the user to retrieve", required = true)
-            @PathVariable UUID userId) {
+            @PathVariable UUID userId,
+            WebRequest webRequest) {
 
         log.info("Getting basic user data for user: {}", userId);
 
-        BasicUserResponse response = BasicUserResponse.from(userService.getUserById(userId));
+        String eTag = userService.getUserETag(userId);
+        if (webRequest.checkNotModified(eTag)) {
+            log.info("Basic user data not modified for user: {}", userId);
+            return ResponseEntity.status(NOT_MODIFIED).eTag(eTag).cacheControl(BASIC_INFO_CACHE_CONTROL).build();
+        }
+
+        BasicUserResponse response = userService.getBasicUserInfo(userId);
+
+        log.info("Returning successful found user: {}", userId);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(BASIC_INFO_CACHE_CONTROL).body(response);
+    }
+
+    @Operation(summary = "Get basic user information for a batch of user IDs",
+            description = "Returns basic user details keyed by user ID, together with the IDs that were not found.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "User information retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = BasicUsersBatchResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid batch of user IDs supplied",
+                    content = @Content)
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<BasicUsersBatchResponse> getUsersBasicInfo(
+            @Parameter(description = "Batch of user IDs to retrieve", required = true)
+            @Valid @RequestBody BasicUsersBatchRequest request) {
+
+        log.info("Getting basic user data for {} users", request.getUserIds().size());
+
+        BasicUsersBatchResponse response = userService.getBasicUsersInfo(request.getUserIds());
+
+        log.info("Returning {} found users, {} missing", response.getUsers().size(), response.getMissing().size());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Find users by activity preference and city",
+            description = "Returns basic user details of users in the given city interested in any of the given "
+                    + "activities, ordered by user ID. Pass the returned cursor to get the next page.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Matching users retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = BasicUsersPageResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid activities, city, limit or cursor supplied",
+                    content = @Content)
+    })
+    @GetMapping("/by-activity")
+    public ResponseEntity<BasicUsersPageResponse> findUsersByActivities(
+            @Parameter(description = "Activities the users must be interested in, any of them, by display or constant "
+                    + "name", required = true)
+            @RequestParam
+            @NotEmpty(message = "At least one activity is mandatory.") Set<ActivityType> activities,
+            @Parameter(description = "City the users live in, ignoring case", required = true)
+            @RequestParam
+            @NotBlank(message = "City is mandatory.")
+            @Size(max = 255, message = "City must be less than or equal to 255 characters.") String city,
+            @Parameter(description = "Maximum number of users to return")
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE)
+            @Min(value = 1, message = "Limit must be at least 1.")
+            @Max(value = MAX_PAGE_SIZE, message = "Limit must be at most " + MAX_PAGE_SIZE + ".") int limit,
+            @Parameter(description = "Cursor returned with the previous page")
+            @RequestParam(required = false) UUID cursor) {
+
+        log.info("Getting users in {} interested in {}", city, activities);
+
+        BasicUsersPageResponse response = userService.findUsersByActivities(activities, city, cursor, limit);
 
-        log.info("Returning successful found user: {}", response);
+        log.info("Returning {} users in {} interested in {}", response.getUsers().size(), city, activities);
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Check whether a username and an email are still available",
+            description = "Meant for signup forms checking on every keystroke: most answers come from memory and only "
+                    + "possibly taken values are confirmed against the database.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Availability checked successfully",
+                    content = @Content(schema = @Schema(implementation = AvailabilityResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Neither username nor email supplied, or too long",
+                    content = @Content)
+    })
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> checkAvailability(@Valid AvailabilityRequest request) {
+
+        log.debug("Checking availability of username {} and email {}", request.getUsername(), request.getEmail());
+
+        return ResponseEntity.ok(availabilityService.check(request.getUsername(), request.getEmail()));
+    }
+
+    @Operation(summary = "Search users by username prefix",
+            description = "Returns the id and username of users whose username starts with the given prefix, ignoring "
+                    + "case, in username order.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Matching users retrieved successfully",
+                    content = @Content(array = @ArraySchema(
+                            schema = @Schema(implementation = UsernameSuggestionResponse.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid prefix or limit supplied",
+                    content = @Content)
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<UsernameSuggestionResponse>> searchUsers(
+            @Parameter(description = "Start of the username", required = true)
+            @RequestParam
+            @NotBlank(message = "Prefix is mandatory.")
+            @Size(max = 255, message = "Prefix must be less than or equal to 255 characters.") String prefix,
+            @Parameter(description = "Maximum number of users to return")
+            @RequestParam(defaultValue = "" + DEFAULT_SEARCH_LIMIT)
+            @Min(value = 1, message = "Limit must be at least 1.")
+            @Max(value = MAX_SEARCH_LIMIT, message = "Limit must be at most " + MAX_SEARCH_LIMIT + ".") int limit) {
+
+        log.debug("Searching users with username prefix: {}", prefix);
+
+        return ResponseEntity.ok(usernameSearchService.search(prefix, limit));
+    }
+
+    @Operation(summary = "Search people by name, username or city",
+            description = "Returns users whose username, first name, last name or city resemble the query, "
+                    + "tolerating typos, best matches first. Pass the returned cursor to get the next page.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Matching users retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = UserSearchResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid query, limit or cursor supplied",
+                    content = @Content),
+            @ApiResponse(responseCode = "503", description = "Search did not complete within its time budget",
+                    content = @Content)
+    })
+    @GetMapping("/people")
+    public ResponseEntity<UserSearchResponse> searchPeople(
+            @Parameter(description = "Free text to look for", required = true)
+            @RequestParam
+            @Size(min = 3, max = 255, message = "Query must be between 3 and 255 characters.") String query,
+            @Parameter(description = "Maximum number of users to return")
+            @RequestParam(defaultValue = "" + DEFAULT_SEARCH_LIMIT)
+            @Min(value = 1, message = "Limit must be at least 1.")
+            @Max(value = MAX_SEARCH_LIMIT, message = "Limit must be at most " + MAX_SEARCH_LIMIT + ".") int limit,
+            @Parameter(description = "Cursor returned with the previous page")
+            @RequestParam(required = false) String cursor) {
+
+        log.info("Searching people matching: {}", query);
+
+        UserSearchResponse response = userSearchService.search(query, limit, cursor);
+
+        log.info("Returning {} people matching: {}", response.getResults().size(), query);
+        return ResponseEntity.ok(response);
+    }
 }
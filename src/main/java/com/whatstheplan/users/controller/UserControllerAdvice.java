@@ -2,86 +2,205 @@ package com.whatstheplan.users.controller;
 
 
 import com.whatstheplan.users.exceptions.EmailAlreadyExistsException;
+import com.whatstheplan.users.exceptions.InvalidCursorException;
+import com.whatstheplan.users.exceptions.InvalidImportException;
 import com.whatstheplan.users.exceptions.MissingEmailInTokenException;
 import com.whatstheplan.users.exceptions.UserNotExistsException;
 import com.whatstheplan.users.exceptions.UsernameAlreadyExistsException;
 import com.whatstheplan.users.model.response.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.whatstheplan.users.utils.Utils.EMAIL_KEY;
+import static com.whatstheplan.users.utils.Utils.USERNAME_KEY;
+import static com.whatstheplan.users.utils.Utils.violatedConstraint;
 
 @Slf4j
 @RestControllerAdvice
 public class UserControllerAdvice {
 
+    // Fixed answers for expected conditions are built once; ErrorResponse is immutable and so are these entities.
+    private static final ResponseEntity<ErrorResponse> USER_NOT_EXISTS = badRequest("User does not exists.");
+    private static final ResponseEntity<ErrorResponse> EMAIL_ALREADY_EXISTS = badRequest("Email already exists.");
+    private static final ResponseEntity<ErrorResponse> USERNAME_ALREADY_EXISTS =
+            badRequest("Username already exists.");
+    private static final ResponseEntity<ErrorResponse> UNEXPECTED_INTEGRITY_ERROR =
+            badRequest("Unexpected error occurred");
+    private static final ResponseEntity<ErrorResponse> INVALID_CURSOR = badRequest("Invalid cursor.");
+    private static final ResponseEntity<ErrorResponse> QUERY_TIMEOUT =
+            serviceUnavailable("Search took too long, please refine it.");
+    private static final ResponseEntity<ErrorResponse> DATABASE_UNAVAILABLE =
+            serviceUnavailable("Service temporarily unavailable.");
+    private static final ResponseEntity<ErrorResponse> UNEXPECTED_ERROR =
+            ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ErrorResponse("Unexpected error."));
+
+    private final Duration warnInterval;
+    private final Map<String, ThrottledWarning> warnings = new ConcurrentHashMap<>();
+    private final Map<String, ResponseEntity<ErrorResponse>> tokenErrors = new ConcurrentHashMap<>();
+
+    public UserControllerAdvice(@Value("${users.errors.warn-interval}") Duration warnInterval) {
+        this.warnInterval = warnInterval;
+    }
+
     @ExceptionHandler(UserNotExistsException.class)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(UserNotExistsException ex) {
-        log.warn("User does not exists: {}", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
-                new ErrorResponse("User does not exists.")
-        );
+        warn("user-not-exists", "User does not exists: {}", ex.getMessage());
+        return USER_NOT_EXISTS;
     }
 
     @ExceptionHandler(EmailAlreadyExistsException.class)
     public ResponseEntity<ErrorResponse> handleEmailAlreadyExists(EmailAlreadyExistsException ex) {
-        log.warn("Email already exists exception occurred: {}", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
-                new ErrorResponse("Email already exists.")
-        );
+        warn("email-already-exists", "Email already exists exception occurred: {}", ex.getMessage());
+        return EMAIL_ALREADY_EXISTS;
     }
 
     @ExceptionHandler(UsernameAlreadyExistsException.class)
     public ResponseEntity<ErrorResponse> handleUsernameAlreadyExists(UsernameAlreadyExistsException ex) {
-        log.warn("Username already exists exception occurred: {}", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
-                new ErrorResponse("Username already exists.")
-        );
+        warn("username-already-exists", "Username already exists exception occurred: {}", ex.getMessage());
+        return USERNAME_ALREADY_EXISTS;
     }
 
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
-        log.warn("Data Integrity Violation Exception occurred: {}", ex.getMessage());
-        if (ex.getMessage().contains("users_email_key")) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
-                    new ErrorResponse("Email already exists.")
-            );
-        } else if (ex.getMessage().contains("users_username_key")) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
-                    new ErrorResponse("Username already exists.")
-            );
-        }
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
-                new ErrorResponse("Unexpected error occurred")
-        );
+        warn("data-integrity-violation", "Data Integrity Violation Exception occurred: {}", ex.getMessage());
+        return switch (violatedConstraint(ex).orElse("")) {
+            case EMAIL_KEY -> EMAIL_ALREADY_EXISTS;
+            case USERNAME_KEY -> USERNAME_ALREADY_EXISTS;
+            default -> UNEXPECTED_INTEGRITY_ERROR;
+        };
     }
 
     @ExceptionHandler(MissingEmailInTokenException.class)
     public ResponseEntity<ErrorResponse> handleMissingEmailInToken(MissingEmailInTokenException ex) {
-        log.warn("Missing email in token exception occurred: {}", ex.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
-                new ErrorResponse(ex.getMessage())
-        );
+        warn("missing-email-in-token", "Missing email in token exception occurred: {}", ex.getMessage());
+        // The messages are the few constants in Utils, so this stays small.
+        return tokenErrors.computeIfAbsent(ex.getMessage(), UserControllerAdvice::badRequest);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex) {
-        log.warn("Request validation error occurred: {}", ex.getMessage());
+        warn("invalid-request", "Request validation error occurred: {}", ex.getMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
                 new ErrorResponse(String.join(" ", ex.getBindingResult().getFieldErrors().stream()
                         .map(FieldError::getDefaultMessage)
                         .toList())));
     }
 
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ErrorResponse> handleValidationExceptions(HandlerMethodValidationException ex) {
+        warn("invalid-parameter", "Request parameter validation error occurred: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                new ErrorResponse(String.join(" ", ex.getAllErrors().stream()
+                        .map(MessageSourceResolvable::getDefaultMessage)
+                        .toList())));
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        warn("parameter-type-mismatch", "Request parameter type mismatch occurred: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                new ErrorResponse("Invalid value for " + ex.getName() + ".")
+        );
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursor(InvalidCursorException ex) {
+        warn("invalid-cursor", "Invalid cursor supplied: {}", ex.getMessage());
+        return INVALID_CURSOR;
+    }
+
+    @ExceptionHandler(InvalidImportException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidImport(InvalidImportException ex) {
+        warn("invalid-import", "Invalid import supplied: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(
+                new ErrorResponse(ex.getMessage())
+        );
+    }
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleQueryTimeout(QueryTimeoutException ex) {
+        warn("query-timeout", "Query exceeded its time budget: {}", ex.getMessage());
+        return QUERY_TIMEOUT;
+    }
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ErrorResponse> handleDatabaseUnavailableExceptions(Exception ex) {
+        warn("database-unavailable", "Database unavailable: {}", ex.getMessage());
+        return DATABASE_UNAVAILABLE;
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleOtherExceptions(Exception ex) {
         log.error("Unexpected error occurred: {}", ex.getMessage(), ex);
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(
-                new ErrorResponse("Unexpected error.")
-        );
+        return UNEXPECTED_ERROR;
+    }
+
+    /**
+     * Logs at most one warning per kind and interval, and reports how many were dropped in between; a zero
+     * interval logs every warning. Bursts of bad requests would otherwise make logging the costliest part of them.
+     */
+    private void warn(String kind, String format, Object argument) {
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+        if (warnInterval.isZero()) {
+            log.warn(format, argument);
+            return;
+        }
+        long suppressed = warnings.computeIfAbsent(kind, key -> new ThrottledWarning())
+                .tryAcquire(System.nanoTime(), warnInterval.toNanos());
+        if (suppressed == 0) {
+            log.warn(format, argument);
+        } else if (suppressed > 0) {
+            log.warn(format + " ({} similar warnings suppressed)", argument, suppressed);
+        }
+    }
+
+    private static ResponseEntity<ErrorResponse> badRequest(String reason) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorResponse(reason));
+    }
+
+    private static ResponseEntity<ErrorResponse> serviceUnavailable(String reason) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse(reason));
+    }
+
+    private static final class ThrottledWarning {
+
+        private final AtomicLong lastLogged = new AtomicLong(System.nanoTime() - Long.MAX_VALUE / 2);
+        private final LongAdder suppressed = new LongAdder();
+
+        /**
+         * Number of warnings suppressed since the last one if this one may be logged, or -1 if it is suppressed.
+         */
+        private long tryAcquire(long now, long intervalNanos) {
+            long last = lastLogged.get();
+            if (now - last >= intervalNanos && lastLogged.compareAndSet(last, now)) {
+                return suppressed.sumThenReset();
+            }
+            suppressed.increment();
+            return -1;
+        }
     }
 }
@@ -1,9 +1,14 @@
 package com.whatstheplan.users.controller;
 
+import com.whatstheplan.users.model.AuthenticatedUser;
+import com.whatstheplan.users.model.SignupConflict;
 import com.whatstheplan.users.model.entities.User;
 import com.whatstheplan.users.model.request.UserProfileRequest;
+import com.whatstheplan.users.model.response.ErrorResponse;
 import com.whatstheplan.users.model.response.UserResponse;
 import com.whatstheplan.users.services.UserService;
+import com.whatstheplan.users.services.UserService.SignupResult;
+import com.whatstheplan.users.utils.PayloadLog;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,6 +19,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -22,10 +28,16 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import static com.whatstheplan.users.utils.Utils.getUserEmail;
-import static com.whatstheplan.users.utils.Utils.getUserId;
 import static org.springframework.http.HttpStatus.CREATED;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 
 @Slf4j
 @RestController
@@ -35,6 +47,14 @@ import static org.springframework.http.HttpStatus.CREATED;
 @Tag(name = "User Profile", description = "Operations to manage user profile")
 public class UsersController {
 
+    private static final CacheControl PROFILE_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+    private static final Map<SignupConflict, ResponseEntity<ErrorResponse>> SIGNUP_CONFLICTS =
+            Arrays.stream(SignupConflict.values())
+                    .collect(Collectors.toMap(Function.identity(),
+                            conflict -> ResponseEntity.badRequest().body(new ErrorResponse(conflict.getReason())),
+                            (first, second) -> first,
+                            () -> new EnumMap<>(SignupConflict.class)));
+
     private final UserService userService;
 
     @Operation(summary = "Retrieve the profile of the authenticated user",
@@ -42,16 +62,25 @@ public class UsersController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User profile retrieved successfully",
                     content = @Content(schema = @Schema(implementation = UserResponse.class))),
+            @ApiResponse(responseCode = "304", description = "User profile not modified since the supplied ETag",
+                    content = @Content),
             @ApiResponse(responseCode = "401", description = "Unauthorized - user not authenticated", content = @Content)
     })
     @GetMapping
-    public ResponseEntity<UserResponse> retrieveUserProfile() {
-        log.info("Getting user data for user: {}, email: {}", getUserId(), getUserEmail());
+    public ResponseEntity<UserResponse> retrieveUserProfile(@Parameter(hidden = true) AuthenticatedUser user,
+                                                            WebRequest webRequest) {
+        log.info("Getting user data for user: {}", user.getId());
 
-        User savedUser = userService.getUserById(getUserId());
+        String eTag = userService.getUserETag(user.getId());
+        if (webRequest.checkNotModified(eTag)) {
+            log.info("User profile not modified for user: {}", user.getId());
+            return ResponseEntity.status(NOT_MODIFIED).eTag(eTag).cacheControl(PROFILE_CACHE_CONTROL).build();
+        }
 
-        log.info("Returning successful found user: {}", getUserId());
-        return ResponseEntity.ok(UserResponse.from(savedUser));
+        UserResponse response = userService.getUserProfile(user.getId());
+
+        log.info("Returning successful found user: {}", user.getId());
+        return ResponseEntity.ok().eTag(eTag).cacheControl(PROFILE_CACHE_CONTROL).body(response);
     }
 
     @Operation(summary = "Create a new user profile",
@@ -59,19 +88,26 @@ public class UsersController {
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "User profile created successfully",
                     content = @Content(schema = @Schema(implementation = UserResponse.class))),
-            @ApiResponse(responseCode = "400", description = "Invalid request payload", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Invalid request payload, or the user, username or email already exists",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "401", description = "Unauthorized - user not authenticated", content = @Content)
     })
     @PostMapping
-    public ResponseEntity<UserResponse> createNewUserProfile(
+    public ResponseEntity<?> createNewUserProfile(
+            @Parameter(hidden = true) AuthenticatedUser user,
             @Parameter(description = "User profile creation request", required = true)
             @Valid @RequestBody UserProfileRequest request) {
-        log.info("Creating new user profile with data: {}", request);
+        log.info("Creating new user profile for user: {}", user.getId());
+        PayloadLog.debug("User profile creation request", request);
 
-        User savedUser = userService.saveUser(request);
+        SignupResult result = userService.saveUser(user, request);
+        if (!result.isCreated()) {
+            log.info("User profile not created for {}: {}", user.getId(), result.conflict());
+            return SIGNUP_CONFLICTS.get(result.conflict());
+        }
 
-        log.info("Returning successful created user: {}", getUserId());
-        return ResponseEntity.status(CREATED).body(UserResponse.from(savedUser));
+        log.info("Returning successful created user: {}", user.getId());
+        return ResponseEntity.status(CREATED).body(UserResponse.from(result.user()));
     }
 
     @Operation(summary = "Update the authenticated user's profile",
@@ -84,13 +120,15 @@ public class UsersController {
     })
     @PutMapping
     public ResponseEntity<UserResponse> updateUserProfile(
+            @Parameter(hidden = true) AuthenticatedUser user,
             @Parameter(description = "User profile update request", required = true)
             @Valid @RequestBody UserProfileRequest request) {
-        log.info("Updating user profile with data: {}", request);
+        log.info("Updating user profile for user: {}", user.getId());
+        PayloadLog.debug("User profile update request", request);
 
-        User updatedUser = userService.updateUser(request);
+        User updatedUser = userService.updateUser(user, request);
 
-        log.info("Returning successful updated user: {}", getUserId());
+        log.info("Returning successful updated user: {}", user.getId());
         return ResponseEntity.ok(UserResponse.from(updatedUser));
     }
 }
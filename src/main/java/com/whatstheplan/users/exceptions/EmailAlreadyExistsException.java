@@ -1,6 +1,6 @@
 package com.whatstheplan.users.exceptions;
 
-public class EmailAlreadyExistsException extends RuntimeException {
+public class EmailAlreadyExistsException extends ExpectedConditionException {
     public EmailAlreadyExistsException(String message, Throwable cause) {
         super(message, cause);
     }
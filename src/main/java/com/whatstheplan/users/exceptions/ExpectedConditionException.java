@@ -0,0 +1,11 @@
+package com.whatstheplan.users.exceptions;
+
+/**
+ * Signals an expected outcome of a request, such as an unknown user or a taken email, that is answered with a
+ * client error. These are thrown on hot paths and never logged with their trace, so filling one in is skipped.
+ */
+public abstract class ExpectedConditionException extends RuntimeException {
+    protected ExpectedConditionException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+}
@@ -1,6 +1,6 @@
 package com.whatstheplan.users.exceptions;
 
-public class MissingEmailInTokenException extends RuntimeException {
+public class MissingEmailInTokenException extends ExpectedConditionException {
     public MissingEmailInTokenException(String message, Throwable cause) {
         super(message, cause);
     }
@@ -0,0 +1,7 @@
+package com.whatstheplan.users.exceptions;
+
+public class PublisherQueueFullException extends RuntimeException {
+    public PublisherQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,6 @@
 package com.whatstheplan.users.exceptions;
 
-public class UserNotExistsException extends RuntimeException {
+public class UserNotExistsException extends ExpectedConditionException {
     public UserNotExistsException(String message, Throwable cause) {
         super(message, cause);
     }
@@ -1,6 +1,6 @@
 package com.whatstheplan.users.exceptions;
 
-public class UsernameAlreadyExistsException extends RuntimeException {
+public class UsernameAlreadyExistsException extends ExpectedConditionException {
     public UsernameAlreadyExistsException(String message, Throwable cause) {
         super(message, cause);
     }
@@ -4,7 +4,14 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
 
+/**
+ * Stored as a bitmask on {@code users.activity_mask} where each value uses the bit of its ordinal:
+ * new values must only ever be appended, and there is room for 64 of them.
+ */
 @Getter
 @RequiredArgsConstructor
 public enum ActivityType {
@@ -58,5 +65,27 @@ public enum ActivityType {
                 .findFirst()
                 .orElseThrow();
     }
+
+    public long mask() {
+        return 1L << ordinal();
+    }
+
+    public static long toMask(Collection<ActivityType> activityTypes) {
+        long mask = 0L;
+        for (ActivityType activityType : activityTypes) {
+            mask |= activityType.mask();
+        }
+        return mask;
+    }
+
+    public static Set<ActivityType> fromMask(long mask) {
+        EnumSet<ActivityType> activityTypes = EnumSet.noneOf(ActivityType.class);
+        for (ActivityType activityType : values()) {
+            if ((mask & activityType.mask()) != 0) {
+                activityTypes.add(activityType);
+            }
+        }
+        return activityTypes;
+    }
 }
 
@@ -0,0 +1,29 @@
+package com.whatstheplan.users.model;
+
+import com.whatstheplan.users.exceptions.MissingEmailInTokenException;
+import lombok.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.UUID;
+
+/**
+ * The caller of a request, read once from its token and handed to the services explicitly, so that they do not
+ * depend on the thread-bound security context.
+ */
+@Value
+public class AuthenticatedUser {
+    UUID id;
+    String email;
+
+    public static AuthenticatedUser from(Authentication authentication) {
+        if (!(authentication instanceof JwtAuthenticationToken token) || token.getName() == null) {
+            throw new MissingEmailInTokenException("Invalid token, user id not found.", null);
+        }
+        String email = token.getToken().getClaimAsString("email");
+        if (email == null) {
+            throw new MissingEmailInTokenException("Invalid token, email not found.", null);
+        }
+        return new AuthenticatedUser(UUID.fromString(token.getName()), email);
+    }
+}
@@ -0,0 +1,9 @@
+package com.whatstheplan.users.model;
+
+/**
+ * Whether users must be interested in any or in all of the requested activities.
+ */
+public enum MatchMode {
+    ANY,
+    ALL
+}
@@ -0,0 +1,12 @@
+package com.whatstheplan.users.model;
+
+/**
+ * Where preferences are read from. {@code activity_mask} is written in both modes; preference rows only in
+ * {@link #TABLE} mode, so users written in {@link #BITMASK} mode are flagged with {@code preferences_stale} and get
+ * their rows back from the mask when an instance starts in {@link #TABLE} mode again. The mask keeps no order, so in
+ * {@link #BITMASK} mode stored preferences are returned in {@link ActivityType} order.
+ */
+public enum PreferencesStorage {
+    TABLE,
+    BITMASK
+}
@@ -0,0 +1,17 @@
+package com.whatstheplan.users.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Why a new profile could not be created, in the order conflicts are looked for.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum SignupConflict {
+    USER_EXISTS("User already exists."),
+    EMAIL_TAKEN("Email already exists."),
+    USERNAME_TAKEN("Username already exists.");
+
+    private final String reason;
+}
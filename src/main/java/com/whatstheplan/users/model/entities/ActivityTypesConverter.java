@@ -0,0 +1,22 @@
+package com.whatstheplan.users.model.entities;
+
+import com.whatstheplan.users.model.ActivityType;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Converter
+public class ActivityTypesConverter implements AttributeConverter<Set<ActivityType>, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Set<ActivityType> activityTypes) {
+        return activityTypes == null ? 0L : ActivityType.toMask(activityTypes);
+    }
+
+    @Override
+    public Set<ActivityType> convertToEntityAttribute(Long mask) {
+        return mask == null ? EnumSet.noneOf(ActivityType.class) : ActivityType.fromMask(mask);
+    }
+}
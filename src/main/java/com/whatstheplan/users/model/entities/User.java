@@ -1,19 +1,29 @@
 package com.whatstheplan.users.model.entities;
 
+import com.whatstheplan.users.model.ActivityType;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import lombok.experimental.SuperBuilder;
+import org.springframework.data.domain.Persistable;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Data
@@ -23,7 +33,7 @@ import java.util.UUID;
 @EqualsAndHashCode(callSuper = true)
 @Entity
 @Table(name = "users")
-public class User extends AbstractAuditingEntity<UUID> {
+public class User extends AbstractAuditingEntity<UUID> implements Persistable<UUID> {
 
     @Id
     private UUID id;
@@ -45,4 +55,29 @@ public class User extends AbstractAuditingEntity<UUID> {
 
     @OneToMany(mappedBy = "user", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
     private List<Preferences> preferences;
+
+    @Builder.Default
+    @Convert(converter = ActivityTypesConverter.class)
+    @Column(name = "activity_mask", nullable = false)
+    private Set<ActivityType> activities = EnumSet.noneOf(ActivityType.class);
+
+    @Column(name = "preferences_stale", nullable = false)
+    private boolean preferencesStale;
+
+    @Transient
+    @Builder.Default
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean newEntity = true;
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
 }
@@ -0,0 +1,28 @@
+package com.whatstheplan.users.model.event;
+
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.entities.User;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChangedEvent {
+    private UUID userId;
+    private String username;
+    private String email;
+    private String city;
+    private Set<ActivityType> activities;
+
+    public static UserChangedEvent from(User user) {
+        return new UserChangedEvent(user.getId(), user.getUsername(), user.getEmail(), user.getCity(),
+                user.getActivities());
+    }
+}
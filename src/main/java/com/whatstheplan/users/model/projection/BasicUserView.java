@@ -0,0 +1,12 @@
+package com.whatstheplan.users.model.projection;
+
+import java.util.UUID;
+
+public interface BasicUserView {
+
+    UUID getId();
+
+    String getUsername();
+
+    String getEmail();
+}
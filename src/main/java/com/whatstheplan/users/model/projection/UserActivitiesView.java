@@ -0,0 +1,15 @@
+package com.whatstheplan.users.model.projection;
+
+import com.whatstheplan.users.model.ActivityType;
+
+import java.util.Set;
+import java.util.UUID;
+
+public interface UserActivitiesView {
+
+    UUID getId();
+
+    String getCity();
+
+    Set<ActivityType> getActivities();
+}
@@ -0,0 +1,25 @@
+package com.whatstheplan.users.model.projection;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface UserExportView {
+
+    UUID getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getCity();
+
+    Long getActivityMask();
+
+    Instant getCreatedDate();
+
+    Instant getLastModifiedDate();
+}
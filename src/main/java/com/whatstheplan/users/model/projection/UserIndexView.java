@@ -0,0 +1,7 @@
+package com.whatstheplan.users.model.projection;
+
+/**
+ * What the in-memory indexes keep about a user.
+ */
+public interface UserIndexView extends BasicUserView, UserActivitiesView {
+}
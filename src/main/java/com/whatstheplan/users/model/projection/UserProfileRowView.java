@@ -0,0 +1,11 @@
+package com.whatstheplan.users.model.projection;
+
+import com.whatstheplan.users.model.ActivityType;
+
+/**
+ * A profile joined with one of its preference rows; {@code null} activity type for a user without any.
+ */
+public interface UserProfileRowView extends UserProfileView {
+
+    ActivityType getActivityType();
+}
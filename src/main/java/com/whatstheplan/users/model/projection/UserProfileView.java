@@ -0,0 +1,23 @@
+package com.whatstheplan.users.model.projection;
+
+import com.whatstheplan.users.model.ActivityType;
+
+import java.util.Set;
+import java.util.UUID;
+
+public interface UserProfileView {
+
+    UUID getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getCity();
+
+    Set<ActivityType> getActivities();
+}
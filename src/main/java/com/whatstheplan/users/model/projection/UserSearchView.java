@@ -0,0 +1,18 @@
+package com.whatstheplan.users.model.projection;
+
+import java.util.UUID;
+
+public interface UserSearchView {
+
+    UUID getId();
+
+    String getUsername();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getCity();
+
+    Float getScore();
+}
@@ -0,0 +1,31 @@
+package com.whatstheplan.users.model.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Username and email to check before signing up, at least one of them")
+public class AvailabilityRequest {
+
+    @Size(max = 255, message = "Username must be less than or equal to 255 characters.")
+    @Schema(description = "Username to check, ignoring case", example = "john.doe_99")
+    private String username;
+
+    @Size(max = 255, message = "Email must be less than or equal to 255 characters.")
+    @Schema(description = "Email to check", example = "john@doe.com")
+    private String email;
+
+    @Schema(hidden = true)
+    @AssertTrue(message = "Username or email is mandatory.")
+    public boolean isAnyRequested() {
+        return username != null || email != null;
+    }
+}
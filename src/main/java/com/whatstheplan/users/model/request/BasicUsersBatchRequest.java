@@ -0,0 +1,28 @@
+package com.whatstheplan.users.model.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request model for retrieving basic information of several users at once")
+public class BasicUsersBatchRequest {
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    @NotEmpty(message = "User ids are mandatory.")
+    @Size(max = MAX_BATCH_SIZE, message = "No more than " + MAX_BATCH_SIZE + " user ids can be requested at once.")
+    @Schema(description = "UUIDs of the users to retrieve", maxLength = MAX_BATCH_SIZE, required = true)
+    private List<@NotNull(message = "User ids must not be null.") UUID> userIds;
+}
@@ -0,0 +1,53 @@
+package com.whatstheplan.users.model.request;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One profile of a bulk import, with the same fields as an export so that an export can be imported back.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportRow {
+
+    @NotNull(message = "Id is mandatory.")
+    private UUID id;
+
+    @NotBlank(message = "Username is mandatory.")
+    @Pattern(
+            regexp = "^[a-zA-Z0-9._-]{3,15}$",
+            message = "Username must be 3-15 characters long and can only include letters, numbers, dots, underscores, and hyphens."
+    )
+    private String username;
+
+    @NotBlank(message = "Email is mandatory.")
+    @Email(message = "Email must be a valid email address.")
+    @Size(max = 255, message = "Email must be less than or equal to 255 characters.")
+    private String email;
+
+    @NotBlank(message = "First name is mandatory.")
+    @Size(max = 255, message = "First name must be less than or equal to 255 characters.")
+    private String firstName;
+
+    @NotBlank(message = "Last name is mandatory.")
+    @Size(max = 255, message = "Last name must be less than or equal to 255 characters.")
+    private String lastName;
+
+    @NotBlank(message = "City name is mandatory.")
+    @Size(max = 255, message = "City must be less than or equal to 255 characters.")
+    private String city;
+
+    private List<@NotBlank(message = "Each preference must not be blank.") String> preferences;
+}
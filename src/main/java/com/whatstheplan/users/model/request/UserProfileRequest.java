@@ -2,6 +2,7 @@ package com.whatstheplan.users.model.request;
 
 
 import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.AuthenticatedUser;
 import com.whatstheplan.users.model.entities.Preferences;
 import com.whatstheplan.users.model.entities.User;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,10 +14,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.LinkedHashSet;
 import java.util.List;
-
-import static com.whatstheplan.users.utils.Utils.getUserEmail;
-import static com.whatstheplan.users.utils.Utils.getUserId;
+import java.util.Set;
 
 @Data
 @Builder
@@ -57,21 +57,28 @@ public class UserProfileRequest {
     private String city;
 
     @Size(message = "Preferences cannot be empty.")
-    @Schema(description = "List of user preferences or interests", example = "[\"sports\", \"music\"]")
+    @Schema(description = "List of user preferences or interests; repeated ones are only stored once",
+            example = "[\"sports\", \"music\"]")
     private List<@NotBlank(message = "Each preference must not be blank.") String> preferences;
 
-    public User toEntity() {
+    public User toEntity(AuthenticatedUser user) {
+        // Kept in request order for the response and the preference rows; the mask itself has no order.
+        Set<ActivityType> activities = new LinkedHashSet<>();
+        this.preferences.stream()
+                .map(ActivityType::from)
+                .forEach(activities::add);
+
         User userEntity = User.builder()
-                .id(getUserId())
-                .email(getUserEmail())
+                .id(user.getId())
+                .email(user.getEmail())
                 .username(username)
                 .firstName(firstName)
                 .lastName(lastName)
                 .city(city)
+                .activities(activities)
                 .build();
 
-        List<Preferences> preferencesEntities = this.preferences.stream()
-                .map(ActivityType::from)
+        List<Preferences> preferencesEntities = activities.stream()
                 .map(at -> new Preferences(null, at, userEntity))
                 .toList();
 
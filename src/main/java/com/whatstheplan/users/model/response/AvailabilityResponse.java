@@ -0,0 +1,21 @@
+package com.whatstheplan.users.model.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Whether a username and an email can still be registered")
+public class AvailabilityResponse {
+
+    @Schema(description = "Whether no user has the username, ignoring case; absent when no username was asked for")
+    private Boolean usernameAvailable;
+
+    @Schema(description = "Whether no user has the email; absent when no email was asked for")
+    private Boolean emailAvailable;
+}
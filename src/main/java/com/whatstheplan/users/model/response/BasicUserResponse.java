@@ -1,12 +1,15 @@
 package com.whatstheplan.users.model.response;
 
 import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.projection.BasicUserView;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.UUID;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -14,6 +17,9 @@ import lombok.NoArgsConstructor;
 @Schema(description = "Basic user information response")
 public class BasicUserResponse {
 
+    @Schema(description = "Unique identifier of the user", example = "6c1b6f8e-3f4a-4a57-9d0b-2b0f7a4d3c21")
+    private UUID id;
+
     @Schema(description = "Username of the user", example = "john_doe")
     private String username;
 
@@ -22,6 +28,15 @@ public class BasicUserResponse {
 
     public static BasicUserResponse from(User user) {
         return BasicUserResponse.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .build();
+    }
+
+    public static BasicUserResponse from(BasicUserView user) {
+        return BasicUserResponse.builder()
+                .id(user.getId())
                 .username(user.getUsername())
                 .email(user.getEmail())
                 .build();
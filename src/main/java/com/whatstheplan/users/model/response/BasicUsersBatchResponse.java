@@ -0,0 +1,25 @@
+package com.whatstheplan.users.model.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Basic user information for a batch of user ids")
+public class BasicUsersBatchResponse {
+
+    @Schema(description = "Basic information of the found users, keyed by user id")
+    private Map<UUID, BasicUserResponse> users;
+
+    @Schema(description = "Requested user ids that do not exist")
+    private List<UUID> missing;
+}
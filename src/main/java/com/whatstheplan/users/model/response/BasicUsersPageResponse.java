@@ -0,0 +1,24 @@
+package com.whatstheplan.users.model.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Page of basic user information, ordered by user id")
+public class BasicUsersPageResponse {
+
+    @Schema(description = "Basic information of the users in this page")
+    private List<BasicUserResponse> users;
+
+    @Schema(description = "Cursor to pass to get the next page, absent on the last page")
+    private UUID nextCursor;
+}
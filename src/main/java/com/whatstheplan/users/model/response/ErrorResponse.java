@@ -3,16 +3,16 @@ package com.whatstheplan.users.model.response;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
 
-@Data
+@Value
 @Builder
-@NoArgsConstructor
+@Jacksonized
 @AllArgsConstructor
 @Schema(description = "Standard error response with failure reason")
 public class ErrorResponse {
 
     @Schema(description = "Explanation of the error", example = "User not found")
-    private String reason;
+    String reason;
 }
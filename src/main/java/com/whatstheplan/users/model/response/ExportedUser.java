@@ -0,0 +1,45 @@
+package com.whatstheplan.users.model.response;
+
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.projection.UserExportView;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportedUser {
+
+    private UUID id;
+    private String username;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private String city;
+    private List<String> preferences;
+    private Instant createdDate;
+    private Instant lastModifiedDate;
+
+    public static ExportedUser from(UserExportView user) {
+        return ExportedUser.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .city(user.getCity())
+                .preferences(ActivityType.fromMask(user.getActivityMask()).stream()
+                        .map(ActivityType::getName)
+                        .toList())
+                .createdDate(user.getCreatedDate())
+                .lastModifiedDate(user.getLastModifiedDate())
+                .build();
+    }
+}
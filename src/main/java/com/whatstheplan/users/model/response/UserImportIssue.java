@@ -0,0 +1,27 @@
+package com.whatstheplan.users.model.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Row of a bulk import that was not imported")
+public class UserImportIssue {
+
+    @Schema(description = "Position of the row in the input, starting at 1 and not counting the CSV header", example = "42")
+    private long row;
+
+    @Schema(description = "Username of the row, when it could be read", example = "john.doe_99")
+    private String username;
+
+    @Schema(description = "Email of the row, when it could be read", example = "john@doe.com")
+    private String email;
+
+    @Schema(description = "Why the row was not imported", example = "Username is already taken.")
+    private String reason;
+}
@@ -0,0 +1,35 @@
+package com.whatstheplan.users.model.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a bulk user import")
+public class UserImportResponse {
+
+    @Schema(description = "Rows read from the input")
+    private long received;
+
+    @Schema(description = "Users created")
+    private long imported;
+
+    @Schema(description = "Rows that were invalid or conflicted with existing users or earlier rows")
+    private long rejected;
+
+    @Schema(description = "Rejected rows in input order, capped at users.import.max-reported-issues")
+    private List<UserImportIssue> issues;
+
+    @Schema(description = "Wall-clock time of the import in milliseconds")
+    private long durationMillis;
+
+    @Schema(description = "Rows read per second")
+    private long rowsPerSecond;
+}
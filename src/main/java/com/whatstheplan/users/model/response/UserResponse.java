@@ -1,14 +1,15 @@
 package com.whatstheplan.users.model.response;
 
 import com.whatstheplan.users.model.ActivityType;
-import com.whatstheplan.users.model.entities.Preferences;
 import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.projection.UserProfileView;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Collection;
 import java.util.List;
 
 @Data
@@ -37,8 +38,22 @@ public class UserResponse {
     private List<String> preferences;
 
     public static UserResponse from(User user) {
-        List<String> preferences = user.getPreferences().stream()
-                .map(Preferences::getActivityType)
+        List<String> preferences = user.getActivities().stream()
+                .map(ActivityType::getName)
+                .toList();
+
+        return UserResponse.builder()
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .city(user.getCity())
+                .preferences(preferences)
+                .build();
+    }
+
+    public static UserResponse from(UserProfileView user, Collection<ActivityType> activityTypes) {
+        List<String> preferences = activityTypes.stream()
                 .map(ActivityType::getName)
                 .toList();
 
@@ -0,0 +1,23 @@
+package com.whatstheplan.users.model.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Page of people search results, best matches first")
+public class UserSearchResponse {
+
+    @Schema(description = "Users matching the query")
+    private List<UserSearchResultResponse> results;
+
+    @Schema(description = "Cursor to pass to get the next page, absent on the last page")
+    private String nextCursor;
+}
@@ -0,0 +1,47 @@
+package com.whatstheplan.users.model.response;
+
+import com.whatstheplan.users.model.projection.UserSearchView;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "User matching a people search")
+public class UserSearchResultResponse {
+
+    @Schema(description = "Unique identifier of the user", example = "6c1b6f8e-3f4a-4a57-9d0b-2b0f7a4d3c21")
+    private UUID id;
+
+    @Schema(description = "Username of the user", example = "john_doe")
+    private String username;
+
+    @Schema(description = "First name of the user", example = "John")
+    private String firstName;
+
+    @Schema(description = "Last name of the user", example = "Doe")
+    private String lastName;
+
+    @Schema(description = "City of the user", example = "Madrid")
+    private String city;
+
+    @Schema(description = "How closely the user matches the query, from 0 to 1", example = "0.8")
+    private float score;
+
+    public static UserSearchResultResponse from(UserSearchView user) {
+        return UserSearchResultResponse.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .city(user.getCity())
+                .score(user.getScore())
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.whatstheplan.users.model.response;
+
+import com.whatstheplan.users.model.projection.BasicUserView;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "User suggested by a username search")
+public class UsernameSuggestionResponse {
+
+    @Schema(description = "Unique identifier of the user", example = "6c1b6f8e-3f4a-4a57-9d0b-2b0f7a4d3c21")
+    private UUID id;
+
+    @Schema(description = "Username of the user", example = "john_doe")
+    private String username;
+
+    public static UsernameSuggestionResponse from(BasicUserView user) {
+        return UsernameSuggestionResponse.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .build();
+    }
+}
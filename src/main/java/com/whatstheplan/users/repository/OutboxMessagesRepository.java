@@ -0,0 +1,57 @@
+package com.whatstheplan.users.repository;
+
+import com.whatstheplan.users.model.entities.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface OutboxMessagesRepository extends JpaRepository<OutboxMessage, UUID> {
+
+    @Query(value = """
+            SELECT * FROM {h-schema}outbox_messages
+            WHERE sent_date IS NULL
+              AND dead_date IS NULL
+              AND (next_attempt_at IS NULL OR next_attempt_at <= :now)
+            ORDER BY created_date
+            LIMIT :batchSize
+            FOR UPDATE SKIP LOCKED""", nativeQuery = true)
+    List<OutboxMessage> lockPendingBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query("update OutboxMessage m set m.sentDate = :sentDate, m.attempts = m.attempts + 1, m.lastError = null, "
+            + "m.lastModifiedDate = :sentDate where m.id in :ids")
+    int markSent(@Param("ids") Collection<UUID> ids, @Param("sentDate") Instant sentDate);
+
+    /**
+     * Schedules the next attempt of each message after an exponential backoff on its attempts so far, and parks the
+     * ones that reached {@code maxAttempts} as dead instead.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE {h-schema}outbox_messages
+            SET attempts           = attempts + 1,
+                last_error         = :error,
+                last_modified_date = :failedDate,
+                next_attempt_at    = CAST(:failedDate AS TIMESTAMP) + make_interval(
+                        secs => LEAST(:initialBackoffSeconds * power(2, attempts), :maxBackoffSeconds)),
+                dead_date          = CASE WHEN attempts + 1 >= :maxAttempts THEN CAST(:failedDate AS TIMESTAMP) END
+            WHERE id IN (:ids)""", nativeQuery = true)
+    int markFailed(@Param("ids") Collection<UUID> ids,
+                   @Param("error") String error,
+                   @Param("failedDate") Instant failedDate,
+                   @Param("initialBackoffSeconds") double initialBackoffSeconds,
+                   @Param("maxBackoffSeconds") double maxBackoffSeconds,
+                   @Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query("delete from OutboxMessage m where m.sentDate < :sentBefore")
+    int deleteSentBefore(@Param("sentBefore") Instant sentBefore);
+
+    long countBySentDateIsNull();
+}
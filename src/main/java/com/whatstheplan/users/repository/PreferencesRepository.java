@@ -1,11 +1,22 @@
 package com.whatstheplan.users.repository;
 
+import com.whatstheplan.users.model.ActivityType;
 import com.whatstheplan.users.model.entities.Preferences;
-import com.whatstheplan.users.model.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface PreferencesRepository extends JpaRepository<Preferences, UUID> {
-    void deleteAllByUser(User user);
+    @Modifying
+    @Query("delete from Preferences p where p.user.id = :userId and p.activityType in :activityTypes")
+    int deleteAllByUserIdAndActivityTypeIn(@Param("userId") UUID userId,
+                                           @Param("activityTypes") Collection<ActivityType> activityTypes);
+
+    @Query("select p.activityType from Preferences p where p.user.id = :userId")
+    List<ActivityType> findActivityTypesByUserId(@Param("userId") UUID userId);
 }
@@ -1,9 +1,215 @@
 package com.whatstheplan.users.repository;
 
 import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.projection.BasicUserView;
+import com.whatstheplan.users.model.projection.UserActivitiesView;
+import com.whatstheplan.users.model.projection.UserExportView;
+import com.whatstheplan.users.model.projection.UserIndexView;
+import com.whatstheplan.users.model.projection.UserProfileRowView;
+import com.whatstheplan.users.model.projection.UserProfileView;
+import com.whatstheplan.users.model.projection.UserSearchView;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface UsersRepository extends JpaRepository<User, UUID> {
+
+    // pg_trgm lives in the users schema, which is not on the search path of every connection.
+    String SEARCH_SELECT = """
+            SELECT u.id AS "id", CAST(u.username AS TEXT) AS "username", u.first_name AS "firstName",
+                   u.last_name AS "lastName", u.city AS "city", {h-schema}word_similarity(:query, u.search_text) AS "score"
+            FROM {h-schema}users u
+            WHERE :query OPERATOR({h-schema}<%) u.search_text
+            """;
+    String SEARCH_ORDER = """
+            ORDER BY "score" DESC, u.id DESC
+            LIMIT :limit
+            """;
+    String SEARCH_QUERY = SEARCH_SELECT + SEARCH_ORDER;
+    String SEARCH_AFTER_QUERY = SEARCH_SELECT + """
+            AND ({h-schema}word_similarity(:query, u.search_text), u.id) < (:afterScore, :afterId)
+            """ + SEARCH_ORDER;
+
+    Optional<BasicUserView> findBasicById(UUID id);
+
+    /**
+     * Spelled out because a derived query falls back to loading the whole entity, eager preferences included, for
+     * projections with a collection-typed property such as {@code activities}.
+     */
+    @Query("""
+            select u.id as id, u.username as username, u.email as email, u.firstName as firstName,
+                   u.lastName as lastName, u.city as city, u.activities as activities
+            from User u
+            where u.id = :id
+            """)
+    Optional<UserProfileView> findProfileById(@Param("id") UUID id);
+
+    /**
+     * The profile and its preference rows in one round trip, one row per preference, without managed entities.
+     */
+    @Query("""
+            select u.id as id, u.username as username, u.email as email, u.firstName as firstName,
+                   u.lastName as lastName, u.city as city, u.activities as activities, p.activityType as activityType
+            from User u
+            left join u.preferences p
+            where u.id = :id
+            """)
+    List<UserProfileRowView> findProfileRowsById(@Param("id") UUID id);
+
+    List<BasicUserView> findAllByIdIn(Collection<UUID> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<BasicUserView> streamAllBy();
+
+    /**
+     * Spelled out because a derived query treats the converted {@code activities} set as a collection and loads whole
+     * entities instead of the three columns.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.id as id, u.city as city, u.activities as activities from User u")
+    Stream<UserActivitiesView> streamActivitiesBy();
+
+    /**
+     * Re-reads the users other instances changed, in one round trip shared by all in-memory indexes.
+     */
+    @Query("""
+            select u.id as id, u.username as username, u.email as email, u.city as city, u.activities as activities
+            from User u
+            where u.id in :ids
+            """)
+    List<UserIndexView> findIndexViewsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Case-insensitive like the unique index it is answered from; the operator is qualified because {@code citext}
+     * lives in the application schema, which need not be on the search path.
+     */
+    @Query(value = """
+            SELECT EXISTS (SELECT 1
+                           FROM {h-schema}users u
+                           WHERE u.username OPERATOR({h-schema}=) CAST(:username AS {h-schema}citext))
+            """, nativeQuery = true)
+    boolean existsByUsernameIgnoringCase(@Param("username") String username);
+
+    boolean existsByEmail(String email);
+
+    /**
+     * Inserts the user unless it clashes with any unique key, without raising an error that would abort the
+     * transaction. Empty when nothing was inserted; {@link #findSignupConflict} then tells why.
+     */
+    @Query(value = """
+            INSERT INTO {h-schema}users (id, username, email, first_name, last_name, city, activity_mask,
+                                         preferences_stale, created_date, last_modified_date)
+            VALUES (:id, :username, :email, :firstName, :lastName, :city, :activityMask, :preferencesStale,
+                    :createdDate, :createdDate)
+            ON CONFLICT DO NOTHING
+            RETURNING id
+            """, nativeQuery = true)
+    Optional<UUID> insertIfAbsent(@Param("id") UUID id,
+                                  @Param("username") String username,
+                                  @Param("email") String email,
+                                  @Param("firstName") String firstName,
+                                  @Param("lastName") String lastName,
+                                  @Param("city") String city,
+                                  @Param("activityMask") long activityMask,
+                                  @Param("preferencesStale") boolean preferencesStale,
+                                  @Param("createdDate") Instant createdDate);
+
+    /**
+     * Name of the {@link com.whatstheplan.users.model.SignupConflict} an insert ran into, answered from the unique
+     * indexes in one round trip; empty if the conflicting user is gone by now.
+     */
+    @Query(value = """
+            SELECT CASE
+                       WHEN EXISTS (SELECT 1 FROM {h-schema}users u WHERE u.id = :id) THEN 'USER_EXISTS'
+                       WHEN EXISTS (SELECT 1 FROM {h-schema}users u WHERE u.email = :email) THEN 'EMAIL_TAKEN'
+                       WHEN EXISTS (SELECT 1
+                                    FROM {h-schema}users u
+                                    WHERE u.username OPERATOR({h-schema}=) CAST(:username AS {h-schema}citext))
+                           THEN 'USERNAME_TAKEN'
+                       END
+            """, nativeQuery = true)
+    Optional<String> findSignupConflict(@Param("id") UUID id,
+                                        @Param("username") String username,
+                                        @Param("email") String email);
+
+    @Query(value = SEARCH_QUERY, nativeQuery = true)
+    List<UserSearchView> search(@Param("query") String query, @Param("limit") int limit);
+
+    @Query(value = SEARCH_AFTER_QUERY, nativeQuery = true)
+    List<UserSearchView> searchAfter(@Param("query") String query,
+                                     @Param("afterScore") float afterScore,
+                                     @Param("afterId") UUID afterId,
+                                     @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT u.id AS "id", CAST(u.username AS TEXT) AS "username", u.email AS "email"
+            FROM {h-schema}users u
+            WHERE lower(u.city) = lower(:city)
+              AND u.id > :afterId
+              AND EXISTS (SELECT 1
+                          FROM {h-schema}preferences p
+                          WHERE p.user_id = u.id
+                            AND p.activity_type IN (:activityTypes))
+            ORDER BY u.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<BasicUserView> findByCityAndPreferences(@Param("city") String city,
+                                                 @Param("activityTypes") Collection<String> activityTypes,
+                                                 @Param("afterId") UUID afterId,
+                                                 @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT u.id AS "id", CAST(u.username AS TEXT) AS "username", u.email AS "email"
+            FROM {h-schema}users u
+            WHERE lower(u.city) = lower(:city)
+              AND u.id > :afterId
+              AND (u.activity_mask & :activityMask) <> 0
+            ORDER BY u.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<BasicUserView> findByCityAndActivityMask(@Param("city") String city,
+                                                  @Param("activityMask") long activityMask,
+                                                  @Param("afterId") UUID afterId,
+                                                  @Param("limit") int limit);
+
+    /**
+     * One keyset page of the export. Activities come from {@code activity_mask}, which is kept in sync in both
+     * preference storage modes, so pages never touch {@code preferences}.
+     */
+    @Query(value = """
+            SELECT u.id AS "id", CAST(u.username AS TEXT) AS "username", u.email AS "email",
+                   u.first_name AS "firstName", u.last_name AS "lastName", u.city AS "city",
+                   u.activity_mask AS "activityMask", u.created_date AS "createdDate",
+                   u.last_modified_date AS "lastModifiedDate"
+            FROM {h-schema}users u
+            WHERE u.id > :afterId
+            ORDER BY u.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<UserExportView> findExportPage(@Param("afterId") UUID afterId, @Param("limit") int limit);
+
+    /**
+     * Scopes the search settings to the current transaction: {@code pg_trgm}'s match threshold and a hard time
+     * budget after which Postgres cancels the query.
+     */
+    @Query(value = """
+            SELECT set_config('statement_timeout', :statementTimeout, true),
+                   set_config('pg_trgm.word_similarity_threshold', :similarityThreshold, true)
+            """, nativeQuery = true)
+    Object[] configureSearch(@Param("statementTimeout") String statementTimeout,
+                           @Param("similarityThreshold") String similarityThreshold);
+
+    @Query("select coalesce(u.lastModifiedDate, u.createdDate) from User u where u.id = :id")
+    Optional<Instant> findLastModifiedDateById(@Param("id") UUID id);
 }
@@ -0,0 +1,305 @@
+package com.whatstheplan.users.services;
+
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.MatchMode;
+import com.whatstheplan.users.model.event.UserChangedEvent;
+import com.whatstheplan.users.model.projection.UserActivitiesView;
+import com.whatstheplan.users.repository.UsersRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index from activity, and from city, to the users interested in it, for notification fan-out. Users are
+ * numbered with dense int ordinals so each posting list is a compressed {@link RoaringBitmap} and AND/OR across
+ * activities are bitmap operations. Loaded on startup and kept current like {@link UsernameSearchService}.
+ */
+@Slf4j
+@Service
+public class ActivityIndexService implements SmartLifecycle {
+
+    private final UsersRepository usersRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int loadBatchSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile ActivityIndex index = new ActivityIndex();
+    private ActivityIndex loading;
+    private volatile boolean running;
+
+    public ActivityIndexService(UsersRepository usersRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${users.search.load-batch-size}") int loadBatchSize) {
+        this.usersRepository = usersRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.loadBatchSize = loadBatchSize;
+        Gauge.builder("users.activity-index.size", this, ActivityIndexService::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resolves the matching users under the read lock and returns them as a snapshot that can be streamed to a
+     * slow client without blocking index updates.
+     */
+    public MatchingUsers find(Set<ActivityType> activityTypes, MatchMode matchMode, String city) {
+        lock.readLock().lock();
+        try {
+            return index.find(activityTypes, matchMode, city);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            loading = new ActivityIndex();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<UserActivitiesView> users = usersRepository.streamActivitiesBy()) {
+                    List<UserActivitiesView> batch = new ArrayList<>(loadBatchSize);
+                    users.forEach(user -> {
+                        batch.add(user);
+                        if (batch.size() == loadBatchSize) {
+                            load(batch);
+                            batch.clear();
+                        }
+                    });
+                    load(batch);
+                }
+            });
+        } finally {
+            lock.writeLock().lock();
+            try {
+                index = loading;
+                index.optimize();
+                loading = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Loaded {} users into the activity index in {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        update(index -> index.put(event.getUserId(), event.getCity(), event.getActivities()));
+    }
+
+    /**
+     * Applies changes that were not made through this instance: {@code users} holds the current state of the re-read
+     * {@code userIds}, and those missing from it were deleted.
+     */
+    public void refresh(Collection<UUID> userIds, Collection<? extends UserActivitiesView> users) {
+        Set<UUID> deleted = new HashSet<>(userIds);
+        users.forEach(user -> deleted.remove(user.getId()));
+        update(index -> {
+            users.forEach(user -> index.put(user.getId(), user.getCity(), user.getActivities()));
+            deleted.forEach(index::remove);
+        });
+    }
+
+    @Override
+    public void start() {
+        rebuild();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void load(List<UserActivitiesView> users) {
+        lock.writeLock().lock();
+        try {
+            for (UserActivitiesView user : users) {
+                // Anything already indexed came from a change event and is newer than this snapshot.
+                if (!loading.ordinals.containsKey(user.getId())) {
+                    loading.put(user.getId(), user.getCity(), user.getActivities());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void update(Consumer<ActivityIndex> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (loading != null) {
+                change.accept(loading);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String cityKey(String city) {
+        return city == null ? null : city.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Users matched by a query: their ordinals plus the ordinal to id arrays as of the query. Ordinals are never
+     * reassigned and the arrays are only ever replaced by larger copies, so the snapshot stays consistent.
+     */
+    public record MatchingUsers(RoaringBitmap ordinals, long[] mostSignificantBits, long[] leastSignificantBits) {
+
+        public int count() {
+            return ordinals.getCardinality();
+        }
+
+        public UUID userId(int ordinal) {
+            return new UUID(mostSignificantBits[ordinal], leastSignificantBits[ordinal]);
+        }
+    }
+
+    private static final class ActivityIndex {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final Map<UUID, Integer> ordinals = new HashMap<>();
+        private final RoaringBitmap[] byActivity = new RoaringBitmap[ActivityType.values().length];
+        private final Map<String, RoaringBitmap> byCity = new HashMap<>();
+        private long[] mostSignificantBits = new long[INITIAL_CAPACITY];
+        private long[] leastSignificantBits = new long[INITIAL_CAPACITY];
+        private long[] activityMasks = new long[INITIAL_CAPACITY];
+        private String[] cities = new String[INITIAL_CAPACITY];
+        private int nextOrdinal;
+
+        private ActivityIndex() {
+            Arrays.setAll(byActivity, activityType -> new RoaringBitmap());
+        }
+
+        private void put(UUID userId, String city, Set<ActivityType> activityTypes) {
+            Integer existing = ordinals.get(userId);
+            int ordinal = existing == null ? assignOrdinal(userId) : existing;
+
+            long activityMask = ActivityType.toMask(activityTypes);
+            long changedActivities = activityMasks[ordinal] ^ activityMask;
+            for (ActivityType activityType : ActivityType.fromMask(changedActivities)) {
+                if ((activityMask & activityType.mask()) != 0) {
+                    byActivity[activityType.ordinal()].add(ordinal);
+                } else {
+                    byActivity[activityType.ordinal()].remove(ordinal);
+                }
+            }
+            activityMasks[ordinal] = activityMask;
+
+            String cityKey = cityKey(city);
+            if (existing == null || !Objects.equals(cities[ordinal], cityKey)) {
+                removeFromCity(ordinal);
+                if (cityKey != null) {
+                    byCity.computeIfAbsent(cityKey, key -> new RoaringBitmap()).add(ordinal);
+                }
+                cities[ordinal] = cityKey;
+            }
+        }
+
+        private void remove(UUID userId) {
+            Integer ordinal = ordinals.remove(userId);
+            if (ordinal == null) {
+                return;
+            }
+            for (ActivityType activityType : ActivityType.fromMask(activityMasks[ordinal])) {
+                byActivity[activityType.ordinal()].remove(ordinal);
+            }
+            activityMasks[ordinal] = 0L;
+            removeFromCity(ordinal);
+            cities[ordinal] = null;
+        }
+
+        private MatchingUsers find(Set<ActivityType> activityTypes, MatchMode matchMode, String city) {
+            List<RoaringBitmap> postings = activityTypes.stream()
+                    .map(activityType -> byActivity[activityType.ordinal()])
+                    .toList();
+            RoaringBitmap matching = matchMode == MatchMode.ALL
+                    ? FastAggregation.and(postings.iterator())
+                    : FastAggregation.or(postings.iterator());
+            if (city != null) {
+                matching.and(byCity.getOrDefault(cityKey(city), new RoaringBitmap()));
+            }
+            return new MatchingUsers(matching, mostSignificantBits, leastSignificantBits);
+        }
+
+        private void optimize() {
+            for (RoaringBitmap bitmap : byActivity) {
+                bitmap.runOptimize();
+            }
+            byCity.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        private int assignOrdinal(UUID userId) {
+            int ordinal = nextOrdinal++;
+            if (ordinal == mostSignificantBits.length) {
+                int capacity = mostSignificantBits.length * 2;
+                mostSignificantBits = Arrays.copyOf(mostSignificantBits, capacity);
+                leastSignificantBits = Arrays.copyOf(leastSignificantBits, capacity);
+                activityMasks = Arrays.copyOf(activityMasks, capacity);
+                cities = Arrays.copyOf(cities, capacity);
+            }
+            mostSignificantBits[ordinal] = userId.getMostSignificantBits();
+            leastSignificantBits[ordinal] = userId.getLeastSignificantBits();
+            ordinals.put(userId, ordinal);
+            return ordinal;
+        }
+
+        private void removeFromCity(int ordinal) {
+            String cityKey = cities[ordinal];
+            if (cityKey == null) {
+                return;
+            }
+            RoaringBitmap cityUsers = byCity.get(cityKey);
+            cityUsers.remove(ordinal);
+            if (cityUsers.isEmpty()) {
+                byCity.remove(cityKey);
+            }
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.whatstheplan.users.services;
+
+import com.whatstheplan.users.model.event.UserChangedEvent;
+import com.whatstheplan.users.model.projection.BasicUserView;
+import com.whatstheplan.users.model.response.AvailabilityResponse;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.utils.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Answers username and email availability for the signup form. Bloom filters over the lower-cased usernames and
+ * emails of all users settle most checks in memory, since a miss means the value is definitely free; only a
+ * possible hit is confirmed against the database. Filters cannot forget values, so after renames they drift towards
+ * more false positives until the next periodic rebuild.
+ */
+@Slf4j
+@Service
+public class AvailabilityService implements SmartLifecycle {
+
+    private final UsersRepository usersRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int loadBatchSize;
+    private final double falsePositiveRate;
+    private final long minCapacity;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // A lock rather than synchronized, so a virtual thread waiting for the database does not pin its carrier.
+    private final Lock rebuildLock = new ReentrantLock();
+    private final Checks usernameChecks;
+    private final Checks emailChecks;
+
+    private volatile Filters filters;
+    private Filters loading;
+    private volatile boolean running;
+
+    public AvailabilityService(UsersRepository usersRepository,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${users.search.load-batch-size}") int loadBatchSize,
+                               @Value("${users.availability.false-positive-rate}") double falsePositiveRate,
+                               @Value("${users.availability.min-capacity}") long minCapacity) {
+        this.usersRepository = usersRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.loadBatchSize = loadBatchSize;
+        this.falsePositiveRate = falsePositiveRate;
+        this.minCapacity = minCapacity;
+        this.filters = new Filters(minCapacity, falsePositiveRate);
+        this.usernameChecks = new Checks(meterRegistry, "username", filters -> filters.usernames);
+        this.emailChecks = new Checks(meterRegistry, "email", filters -> filters.emails);
+    }
+
+    public AvailabilityResponse check(String username, String email) {
+        return AvailabilityResponse.builder()
+                .usernameAvailable(username == null ? null
+                        : isAvailable(username, usernameChecks, usersRepository::existsByUsernameIgnoringCase))
+                .emailAvailable(email == null ? null
+                        : isAvailable(email, emailChecks, usersRepository::existsByEmail))
+                .build();
+    }
+
+    /**
+     * Reloads both filters from the database, sized for twice the current number of users so they keep their
+     * false-positive rate while the user base grows until the next rebuild. Checks are served from the previous
+     * filters until the new ones are complete, and changes seen while loading are added to both. Rebuilds run one
+     * at a time, so a scheduled one and one triggered by change notifications never swap in each other's filters.
+     */
+    @Scheduled(fixedDelayString = "${users.availability.rebuild-interval}",
+            initialDelayString = "${users.availability.rebuild-interval}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildFilters();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildFilters() {
+        long start = System.nanoTime();
+        long users = usersRepository.count();
+        Filters building = new Filters(Math.max(minCapacity, users * 2), falsePositiveRate);
+        lock.writeLock().lock();
+        try {
+            loading = building;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<BasicUserView> stream = usersRepository.streamAllBy()) {
+                    List<BasicUserView> batch = new ArrayList<>(loadBatchSize);
+                    stream.forEach(user -> {
+                        batch.add(user);
+                        if (batch.size() == loadBatchSize) {
+                            load(building, batch);
+                            batch.clear();
+                        }
+                    });
+                    load(building, batch);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Swapping in a partly loaded filter would answer "available" for values that are taken.
+            lock.writeLock().lock();
+            try {
+                loading = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            filters = building;
+            loading = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded the availability filters for {} users in {} ms, expected false-positive rate {}",
+                users, (System.nanoTime() - start) / 1_000_000,
+                building.usernames.expectedFalsePositiveRate());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        put(event.getUsername(), event.getEmail());
+    }
+
+    /**
+     * Adds the current usernames and emails of users changed by other instances. Deleted users need nothing, as
+     * the filters cannot forget values anyway.
+     */
+    public void refresh(Collection<? extends BasicUserView> users) {
+        lock.writeLock().lock();
+        try {
+            for (BasicUserView user : users) {
+                filters.put(user.getUsername(), user.getEmail());
+                if (loading != null) {
+                    loading.put(user.getUsername(), user.getEmail());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        rebuild();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private boolean isAvailable(String value, Checks checks, Predicate<String> existsInDatabase) {
+        String key = normalize(value);
+        boolean possiblyTaken;
+        lock.readLock().lock();
+        try {
+            possiblyTaken = checks.filter.apply(filters).mightContain(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (!possiblyTaken) {
+            checks.filtered.increment();
+            return true;
+        }
+        if (existsInDatabase.test(value)) {
+            checks.taken.increment();
+            return false;
+        }
+        checks.falsePositives.increment();
+        return true;
+    }
+
+    private void load(Filters building, List<BasicUserView> users) {
+        lock.writeLock().lock();
+        try {
+            for (BasicUserView user : users) {
+                building.put(user.getUsername(), user.getEmail());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(String username, String email) {
+        lock.writeLock().lock();
+        try {
+            filters.put(username, email);
+            if (loading != null) {
+                loading.put(username, email);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private double expectedFalsePositiveRate(Function<Filters, BloomFilter> filter) {
+        lock.readLock().lock();
+        try {
+            return filter.apply(filters).expectedFalsePositiveRate();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Filters {
+
+        private final BloomFilter usernames;
+        private final BloomFilter emails;
+
+        private Filters(long capacity, double falsePositiveRate) {
+            this.usernames = new BloomFilter(capacity, falsePositiveRate);
+            this.emails = new BloomFilter(capacity, falsePositiveRate);
+        }
+
+        private void put(String username, String email) {
+            if (username != null) {
+                usernames.put(normalize(username));
+            }
+            if (email != null) {
+                emails.put(normalize(email));
+            }
+        }
+    }
+
+    private final class Checks {
+
+        private final Function<Filters, BloomFilter> filter;
+        private final Counter filtered;
+        private final Counter taken;
+        private final Counter falsePositives;
+
+        private Checks(MeterRegistry meterRegistry, String field,
+                       Function<Filters, BloomFilter> filter) {
+            this.filter = filter;
+            this.filtered = counter(meterRegistry, field, "filtered");
+            this.taken = counter(meterRegistry, field, "taken");
+            this.falsePositives = counter(meterRegistry, field, "false_positive");
+            Gauge.builder("users.availability.filter.expected-false-positive-rate", this,
+                            checks -> expectedFalsePositiveRate(checks.filter))
+                    .tag("field", field)
+                    .register(meterRegistry);
+            // Out of the checks for values nobody has, the share the filter could not settle on its own.
+            Gauge.builder("users.availability.filter.observed-false-positive-rate", this,
+                            Checks::observedFalsePositiveRate)
+                    .tag("field", field)
+                    .register(meterRegistry);
+        }
+
+        private double observedFalsePositiveRate() {
+            double negatives = filtered.count() + falsePositives.count();
+            return negatives == 0 ? 0 : falsePositives.count() / negatives;
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String field, String outcome) {
+            return Counter.builder("users.availability.checks")
+                    .tag("field", field)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -3,8 +3,6 @@ package com.whatstheplan.users.services;
 import com.whatstheplan.users.model.email.WelcomeEmail;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cloud.stream.function.StreamBridge;
-import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -13,17 +11,13 @@ import org.springframework.stereotype.Service;
 public class EmailService {
 
     public static final String WELCOME_EMAIL_BINDING = "welcomeEmail-out-0";
-    private final StreamBridge streamBridge;
+    private final OutboxService outboxService;
 
     public void sendWelcomeEmail(String username, String email) {
-        log.info("Sending welcome email request to RabbitMQ with for user {} and email {}",
-                username, email);
-        streamBridge.send(WELCOME_EMAIL_BINDING,
-                MessageBuilder.withPayload(WelcomeEmail.builder()
-                        .email(email)
-                        .username(username)
-                        .build()
-                ).build()
-        );
+        log.info("Queuing welcome email request for user {}", username);
+        outboxService.enqueue(WELCOME_EMAIL_BINDING, WelcomeEmail.builder()
+                .email(email)
+                .username(username)
+                .build());
     }
 }
@@ -0,0 +1,206 @@
+package com.whatstheplan.users.services;
+
+import com.whatstheplan.users.exceptions.PublisherQueueFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes to the broker from a single dedicated sender thread. Callers only enqueue and get a future that
+ * completes once the broker confirmed the message; a full queue or an open circuit fails the future straight away
+ * instead of blocking the caller.
+ */
+@Slf4j
+@Service
+public class MessagePublisher implements SmartLifecycle {
+
+    private final StreamBridge streamBridge;
+    private final CircuitBreaker circuitBreaker;
+    private final BlockingQueue<PendingMessage> queue;
+    private final int batchSize;
+    private final boolean confirms;
+    private final Duration confirmTimeout;
+    private final MeterRegistry meterRegistry;
+    private final Timer publishLatency;
+
+    private volatile boolean running;
+    private Thread senderThread;
+
+    public MessagePublisher(StreamBridge streamBridge,
+                            CircuitBreaker brokerCircuitBreaker,
+                            MeterRegistry meterRegistry,
+                            @Value("${users.publisher.queue-capacity}") int queueCapacity,
+                            @Value("${users.publisher.batch-size}") int batchSize,
+                            @Value("${users.publisher.confirms}") boolean confirms,
+                            @Value("${users.publisher.confirm-timeout}") Duration confirmTimeout) {
+        this.streamBridge = streamBridge;
+        this.circuitBreaker = brokerCircuitBreaker;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.confirms = confirms;
+        this.confirmTimeout = confirmTimeout;
+        this.meterRegistry = meterRegistry;
+        this.publishLatency = meterRegistry.timer("users.publisher.publish.latency");
+        Gauge.builder("users.publisher.queue.depth", queue, BlockingQueue::size)
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<Void> publish(String destination, byte[] payload) {
+        PendingMessage pendingMessage = new PendingMessage(destination, payload, System.nanoTime(),
+                new CompletableFuture<>());
+        if (!running) {
+            drop(pendingMessage, "shutdown", new IllegalStateException("Message publisher is not running"));
+        } else if (circuitBreaker.getState() == CircuitBreaker.State.OPEN) {
+            drop(pendingMessage, "circuit_open", CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+        } else if (!queue.offer(pendingMessage)) {
+            drop(pendingMessage, "queue_full", new PublisherQueueFullException("Publisher queue is full with " + queue.size() + " pending messages"));
+        }
+        return pendingMessage.result();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        senderThread = new Thread(this::send, "message-publisher");
+        senderThread.setDaemon(true);
+        senderThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        senderThread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void send() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error publishing a batch of {} messages", batch.size(), e);
+                batch.forEach(pendingMessage -> pendingMessage.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        List<PendingMessage> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(pendingMessage ->
+                drop(pendingMessage, "shutdown", new IllegalStateException("Message publisher stopped")));
+    }
+
+    private void sendBatch(List<PendingMessage> batch) throws InterruptedException {
+        Map<PendingMessage, CorrelationData> inFlight = new LinkedHashMap<>();
+        for (PendingMessage pendingMessage : batch) {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                drop(pendingMessage, "circuit_open",
+                        CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+                continue;
+            }
+            long start = System.nanoTime();
+            CorrelationData correlationData = new CorrelationData();
+            try {
+                if (!streamBridge.send(pendingMessage.destination(), toMessage(pendingMessage, correlationData))) {
+                    failed(pendingMessage, start, new IllegalStateException("Binding refused the message"));
+                } else if (confirms) {
+                    inFlight.put(pendingMessage, correlationData);
+                } else {
+                    succeeded(pendingMessage, start);
+                }
+            } catch (RuntimeException e) {
+                failed(pendingMessage, start, e);
+            }
+        }
+        awaitConfirms(inFlight);
+    }
+
+    private void awaitConfirms(Map<PendingMessage, CorrelationData> inFlight) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + confirmTimeout.toNanos();
+        for (Map.Entry<PendingMessage, CorrelationData> entry : inFlight.entrySet()) {
+            PendingMessage pendingMessage = entry.getKey();
+            try {
+                CorrelationData.Confirm confirm = entry.getValue().getFuture()
+                        .get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                if (confirm.isAck()) {
+                    succeeded(pendingMessage, start);
+                } else {
+                    failed(pendingMessage, start,
+                            new IllegalStateException("Broker rejected the message: " + confirm.getReason()));
+                }
+            } catch (TimeoutException e) {
+                failed(pendingMessage, start,
+                        new IllegalStateException("No publisher confirm within " + confirmTimeout));
+            } catch (ExecutionException e) {
+                failed(pendingMessage, start, e.getCause());
+            }
+        }
+    }
+
+    private Message<byte[]> toMessage(PendingMessage pendingMessage, CorrelationData correlationData) {
+        MessageBuilder<byte[]> builder = MessageBuilder.withPayload(pendingMessage.payload())
+                .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON_VALUE);
+        if (confirms) {
+            builder.setHeader(AmqpHeaders.PUBLISH_CONFIRM_CORRELATION, correlationData);
+        }
+        return builder.build();
+    }
+
+    private void succeeded(PendingMessage pendingMessage, long sendStart) {
+        long now = System.nanoTime();
+        circuitBreaker.onSuccess(now - sendStart, TimeUnit.NANOSECONDS);
+        publishLatency.record(now - pendingMessage.enqueuedAt(), TimeUnit.NANOSECONDS);
+        pendingMessage.result().complete(null);
+    }
+
+    private void failed(PendingMessage pendingMessage, long sendStart, Throwable error) {
+        circuitBreaker.onError(System.nanoTime() - sendStart, TimeUnit.NANOSECONDS, error);
+        meterRegistry.counter("users.publisher.failures").increment();
+        pendingMessage.result().completeExceptionally(error);
+    }
+
+    private void drop(PendingMessage pendingMessage, String reason, Throwable error) {
+        meterRegistry.counter("users.publisher.dropped", "reason", reason).increment();
+        pendingMessage.result().completeExceptionally(error);
+    }
+
+    private record PendingMessage(String destination, byte[] payload, long enqueuedAt,
+                                  CompletableFuture<Void> result) {
+    }
+}
@@ -0,0 +1,163 @@
+package com.whatstheplan.users.services;
+
+import com.whatstheplan.users.model.entities.OutboxMessage;
+import com.whatstheplan.users.repository.OutboxMessagesRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes outbox rows written alongside domain changes. Batches are claimed with {@code FOR UPDATE SKIP LOCKED}
+ * so several instances can relay concurrently, and rows are only marked sent once the broker confirmed them:
+ * delivery is at-least-once across crashes and restarts. Failed rows are retried after an exponential backoff and
+ * parked as dead once they used up {@code users.outbox.relay.max-attempts}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(value = "users.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+    // On top of the confirm timeout, for the batch to get through the publisher queue.
+    private static final Duration PUBLISH_TIMEOUT_MARGIN = Duration.ofSeconds(5);
+
+    private final OutboxMessagesRepository outboxMessagesRepository;
+    private final MessagePublisher messagePublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final int maxAttempts;
+    private final Duration publishTimeout;
+    private final Counter published;
+    private final Counter failed;
+    private final Counter dead;
+
+    public OutboxRelay(OutboxMessagesRepository outboxMessagesRepository,
+                       MessagePublisher messagePublisher,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${users.outbox.relay.batch-size}") int batchSize,
+                       @Value("${users.outbox.retention}") Duration retention,
+                       @Value("${users.outbox.relay.initial-backoff}") Duration initialBackoff,
+                       @Value("${users.outbox.relay.max-backoff}") Duration maxBackoff,
+                       @Value("${users.outbox.relay.max-attempts}") int maxAttempts,
+                       @Value("${users.publisher.confirm-timeout}") Duration confirmTimeout) {
+        this.outboxMessagesRepository = outboxMessagesRepository;
+        this.messagePublisher = messagePublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.maxAttempts = maxAttempts;
+        this.publishTimeout = confirmTimeout.plus(PUBLISH_TIMEOUT_MARGIN);
+        this.published = meterRegistry.counter("users.outbox.published");
+        this.failed = meterRegistry.counter("users.outbox.failed");
+        this.dead = meterRegistry.counter("users.outbox.dead");
+    }
+
+    @Scheduled(fixedDelayString = "${users.outbox.relay.interval}")
+    public void relay() {
+        Integer sent;
+        do {
+            sent = transactionTemplate.execute(status -> relayBatch());
+        } while (sent != null && sent == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${users.outbox.purge-interval}")
+    public void purgeSent() {
+        Integer purged = transactionTemplate.execute(status ->
+                outboxMessagesRepository.deleteSentBefore(Instant.now().minus(retention)));
+        if (purged != null && purged > 0) {
+            log.info("Purged {} sent outbox messages older than {}", purged, retention);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxMessage> batch = outboxMessagesRepository.lockPendingBatch(Instant.now(), batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<OutboxMessage, CompletableFuture<Void>> inFlight = new LinkedHashMap<>();
+        batch.forEach(outboxMessage -> inFlight.put(outboxMessage, messagePublisher.publish(
+                outboxMessage.getDestination(), outboxMessage.getPayload().getBytes(StandardCharsets.UTF_8))));
+
+        List<UUID> sent = new ArrayList<>();
+        // An outage fails the whole batch with the same error, which is then recorded with a single update.
+        Map<String, List<OutboxMessage>> failuresByError = new LinkedHashMap<>();
+        // One deadline for the whole batch, so a lost publisher cannot hold the claimed rows' locks indefinitely.
+        long deadline = System.nanoTime() + publishTimeout.toNanos();
+        inFlight.forEach((outboxMessage, result) -> {
+            String error;
+            try {
+                result.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                sent.add(outboxMessage.getId());
+                return;
+            } catch (ExecutionException e) {
+                error = truncate(e.getCause().getMessage());
+            } catch (TimeoutException e) {
+                error = "Not published within " + publishTimeout;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = "Interrupted waiting for the publisher";
+            }
+            failuresByError.computeIfAbsent(error, key -> new ArrayList<>()).add(outboxMessage);
+        });
+
+        Instant now = Instant.now();
+        if (!sent.isEmpty()) {
+            outboxMessagesRepository.markSent(sent, now);
+            published.increment(sent.size());
+        }
+        failuresByError.forEach((error, failures) -> {
+            List<UUID> ids = failures.stream().map(OutboxMessage::getId).toList();
+            outboxMessagesRepository.markFailed(ids, error, now, seconds(initialBackoff), seconds(maxBackoff),
+                    maxAttempts);
+            failed.increment(ids.size());
+
+            List<UUID> parked = failures.stream()
+                    .filter(outboxMessage -> outboxMessage.getAttempts() + 1 >= maxAttempts)
+                    .map(OutboxMessage::getId)
+                    .toList();
+            log.warn("Could not relay {} outbox messages: {}", ids.size(), error);
+            if (!parked.isEmpty()) {
+                log.error("Parked outbox messages {} as dead after {} attempts", parked, maxAttempts);
+                dead.increment(parked.size());
+            }
+        });
+        return sent.size();
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
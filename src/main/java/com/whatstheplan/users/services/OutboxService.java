@@ -0,0 +1,31 @@
+package com.whatstheplan.users.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.entities.OutboxMessage;
+import com.whatstheplan.users.repository.OutboxMessagesRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import static jakarta.transaction.Transactional.TxType.MANDATORY;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxMessagesRepository outboxMessagesRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(MANDATORY)
+    public OutboxMessage enqueue(String destination, Object payload) {
+        try {
+            return outboxMessagesRepository.save(OutboxMessage.builder()
+                    .destination(destination)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize outbox payload for " + destination, e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.whatstheplan.users.services;
+
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.PreferencesStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+
+import static com.whatstheplan.users.model.PreferencesStorage.TABLE;
+
+/**
+ * Rewrites the preference rows of users written in bitmask storage mode from their {@code activity_mask}, when an
+ * instance starts in table mode, so switching back from bitmask mode serves their preferences again. All instances
+ * are expected to run the same mode: users written by a bitmask instance after the switch stay flagged until the next
+ * table-mode start.
+ */
+@Slf4j
+@Service
+public class PreferencesBackfillService implements SmartLifecycle {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String schema;
+    private final PreferencesStorage preferencesStorage;
+    private final String[] activityTypes = Arrays.stream(ActivityType.values())
+            .map(Enum::name)
+            .toArray(String[]::new);
+
+    private volatile boolean running;
+
+    public PreferencesBackfillService(JdbcTemplate jdbcTemplate,
+                                      @Value("${spring.jpa.properties.hibernate.default_schema}") String schema,
+                                      @Value("${users.preferences.storage}") PreferencesStorage preferencesStorage) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schema = schema;
+        this.preferencesStorage = preferencesStorage;
+    }
+
+    /**
+     * Restores the rows of every flagged user, a batch of users per statement.
+     *
+     * @return the number of users whose rows were rewritten
+     */
+    public long backfill() {
+        long start = System.nanoTime();
+        long users = 0;
+        long batch;
+        do {
+            // Activity names are passed in ordinal order, so position - 1 is the bit of each one.
+            batch = jdbcTemplate.queryForObject("""
+                    WITH stale AS (
+                        UPDATE %1$s.users u
+                        SET preferences_stale = FALSE
+                        WHERE u.id IN (SELECT id
+                                       FROM %1$s.users
+                                       WHERE preferences_stale
+                                       LIMIT ? FOR UPDATE SKIP LOCKED)
+                        RETURNING u.id, u.activity_mask),
+                         deleted AS (
+                             DELETE FROM %1$s.preferences p
+                                 USING stale s
+                                 WHERE p.user_id = s.id),
+                         inserted AS (
+                             INSERT INTO %1$s.preferences (id, activity_type, user_id)
+                                 SELECT gen_random_uuid(), a.activity_type, s.id
+                                 FROM stale s
+                                          CROSS JOIN unnest(CAST(? AS TEXT[])) WITH ORDINALITY AS a(activity_type, position)
+                                 WHERE s.activity_mask & (CAST(1 AS BIGINT) << CAST(a.position - 1 AS INT)) <> 0)
+                    SELECT count(*)
+                    FROM stale
+                    """.formatted(schema), Long.class, BATCH_SIZE, activityTypes);
+            users += batch;
+        } while (batch == BATCH_SIZE);
+
+        if (users > 0) {
+            log.info("Restored the preference rows of {} users from their activity mask in {} ms", users,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        return users;
+    }
+
+    @Override
+    public void start() {
+        if (preferencesStorage == TABLE) {
+            backfill();
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
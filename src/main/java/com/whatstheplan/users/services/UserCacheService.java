@@ -0,0 +1,93 @@
+package com.whatstheplan.users.services;
+
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.PreferencesStorage;
+import com.whatstheplan.users.model.event.UserChangedEvent;
+import com.whatstheplan.users.model.projection.UserProfileRowView;
+import com.whatstheplan.users.model.response.BasicUserResponse;
+import com.whatstheplan.users.model.response.UserResponse;
+import com.whatstheplan.users.repository.UsersRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.whatstheplan.users.config.CacheConfig.USERS_CACHE;
+import static com.whatstheplan.users.config.CacheConfig.USERS_INFO_CACHE;
+import static com.whatstheplan.users.config.CacheConfig.USERS_VERSIONS_CACHE;
+import static com.whatstheplan.users.config.CacheConfig.USER_CACHES;
+import static com.whatstheplan.users.model.PreferencesStorage.BITMASK;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserCacheService {
+
+    private final UsersRepository usersRepository;
+    private final CacheManager cacheManager;
+
+    @Value("${users.preferences.storage}")
+    private PreferencesStorage preferencesStorage;
+
+    @Cacheable(cacheNames = USERS_INFO_CACHE)
+    public Optional<BasicUserResponse> findBasicUserInfo(UUID userId) {
+        return usersRepository.findBasicById(userId)
+                .map(BasicUserResponse::from);
+    }
+
+    /**
+     * One query in both storage modes: the profile row alone in bitmask mode, joined with its preference rows in
+     * table mode.
+     */
+    @Cacheable(cacheNames = USERS_CACHE)
+    public Optional<UserResponse> findUserProfile(UUID userId) {
+        if (preferencesStorage == BITMASK) {
+            return usersRepository.findProfileById(userId)
+                    .map(user -> UserResponse.from(user, user.getActivities()));
+        }
+
+        List<UserProfileRowView> rows = usersRepository.findProfileRowsById(userId);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        List<ActivityType> activityTypes = rows.stream()
+                .map(UserProfileRowView::getActivityType)
+                .filter(Objects::nonNull)
+                .toList();
+        return Optional.of(UserResponse.from(rows.get(0), activityTypes));
+    }
+
+    @Cacheable(cacheNames = USERS_VERSIONS_CACHE)
+    public Optional<Instant> findUserVersion(UUID userId) {
+        return usersRepository.findLastModifiedDateById(userId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.getUserId());
+    }
+
+    public void evict(UUID userId) {
+        log.debug("Evicting cached data for user: {}", userId);
+        USER_CACHES.stream()
+                .map(cacheManager::getCache)
+                .forEach(cache -> cache.evict(userId));
+    }
+
+    public void evictAll() {
+        log.info("Evicting all cached user data");
+        USER_CACHES.stream()
+                .map(cacheManager::getCache)
+                .forEach(Cache::clear);
+    }
+}
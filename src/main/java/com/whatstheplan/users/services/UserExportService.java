@@ -0,0 +1,118 @@
+package com.whatstheplan.users.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.whatstheplan.users.model.projection.UserExportView;
+import com.whatstheplan.users.model.response.ExportedUser;
+import com.whatstheplan.users.repository.UsersRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams every user in id order, one keyset page at a time. Each page is a short read of at most
+ * {@code users.export.page-size} rows that is written out and flushed before the next is fetched, so memory stays
+ * flat however large the table is, and an interrupted export can resume after the last id received.
+ */
+@Slf4j
+@Service
+public class UserExportService {
+
+    private static final UUID FIRST_USER_ID = new UUID(0L, 0L);
+    private static final String CSV_HEADER =
+            "id,username,email,first_name,last_name,city,preferences,created_date,last_modified_date";
+
+    private final UsersRepository usersRepository;
+    private final ObjectMapper objectMapper;
+    private final int pageSize;
+    private final Counter exportedRows;
+
+    public UserExportService(UsersRepository usersRepository,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${users.export.page-size}") int pageSize) {
+        this.usersRepository = usersRepository;
+        this.objectMapper = objectMapper;
+        this.pageSize = pageSize;
+        this.exportedRows = meterRegistry.counter("users.export.rows");
+    }
+
+    public void exportNdjson(UUID afterId, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        // Flushed once per page by export instead of after every user.
+        try (SequenceWriter sequenceWriter = objectMapper.writerFor(ExportedUser.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(writer)) {
+            long exported = export(afterId, user -> sequenceWriter.write(ExportedUser.from(user)), sequenceWriter);
+            writer.write('\n');
+            writer.flush();
+            log.info("Exported {} users as NDJSON", exported);
+        }
+    }
+
+    public void exportCsv(UUID afterId, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long exported = export(afterId, user -> writeCsvRow(writer, ExportedUser.from(user)), writer);
+        writer.flush();
+        log.info("Exported {} users as CSV", exported);
+    }
+
+    private long export(UUID afterId, RowWriter rowWriter, Flushable output) throws IOException {
+        UUID after = afterId == null ? FIRST_USER_ID : afterId;
+        long exported = 0;
+        List<UserExportView> page;
+        do {
+            page = usersRepository.findExportPage(after, pageSize);
+            for (UserExportView user : page) {
+                rowWriter.write(user);
+                after = user.getId();
+            }
+            // Hands each page to the client before fetching the next one.
+            output.flush();
+            exported += page.size();
+            exportedRows.increment(page.size());
+        } while (page.size() == pageSize);
+        return exported;
+    }
+
+    private static void writeCsvRow(Writer writer, ExportedUser user) throws IOException {
+        writer.write(Stream.of(user.getId(), user.getUsername(), user.getEmail(), user.getFirstName(),
+                        user.getLastName(), user.getCity(), String.join("|", user.getPreferences()),
+                        user.getCreatedDate(), user.getLastModifiedDate())
+                .map(UserExportService::csvField)
+                .collect(Collectors.joining(",")));
+        writer.write('\n');
+    }
+
+    private static String csvField(Object value) {
+        String field = Objects.toString(value, "");
+        if (field.contains(",") || field.contains("\"") || field.contains("\n") || field.contains("\r")) {
+            return "\"" + field.replace("\"", "\"\"") + "\"";
+        }
+        return field;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(UserExportView user) throws IOException;
+    }
+}
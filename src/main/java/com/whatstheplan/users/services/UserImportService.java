@@ -0,0 +1,481 @@
+package com.whatstheplan.users.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.whatstheplan.users.exceptions.InvalidImportException;
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.PreferencesStorage;
+import com.whatstheplan.users.model.request.UserImportRow;
+import com.whatstheplan.users.model.response.UserImportIssue;
+import com.whatstheplan.users.model.response.UserImportResponse;
+import com.whatstheplan.users.utils.CsvReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.whatstheplan.users.model.PreferencesStorage.BITMASK;
+import static com.whatstheplan.users.services.EmailService.WELCOME_EMAIL_BINDING;
+
+/**
+ * Bulk-creates users from NDJSON or CSV. The body is first spooled to a temporary file of at most
+ * {@code users.import.max-size}, so a slow upload never holds a connection. Rows are then parsed and validated one at
+ * a time while they are streamed into a temporary staging table with {@code COPY}, and merged into {@code users} and
+ * {@code preferences} with a handful of set-based statements, so neither the input nor the users are ever held in
+ * memory. Rows that are invalid, repeat an earlier row or clash with an existing user are reported back instead of
+ * failing the import. Everything runs in one transaction: either all accepted users are created, with their welcome
+ * emails queued, or none are.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final String PREFERENCES_SEPARATOR = "|";
+    private static final List<String> CSV_COLUMNS =
+            List.of("id", "username", "email", "first_name", "last_name", "city", "preferences");
+
+    private static final String MALFORMED_ROW = "Malformed row.";
+    private static final String DUPLICATED_ROW = "Id, username or email repeated from an earlier row.";
+    private static final String USER_EXISTS = "User already exists.";
+    private static final String USERNAME_TAKEN = "Username is already taken.";
+    private static final String EMAIL_IN_USE = "Email is already in use.";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader rowReader;
+    private final Validator validator;
+    private final String schema;
+    private final PreferencesStorage preferencesStorage;
+    private final int maxReportedIssues;
+    private final DataSize maxSize;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+
+    public UserImportService(DataSource dataSource,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             MeterRegistry meterRegistry,
+                             @Value("${spring.jpa.properties.hibernate.default_schema}") String schema,
+                             @Value("${users.preferences.storage}") PreferencesStorage preferencesStorage,
+                             @Value("${users.import.max-reported-issues}") int maxReportedIssues,
+                             @Value("${users.import.max-size}") DataSize maxSize) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rowReader = objectMapper.readerFor(UserImportRow.class);
+        this.validator = validator;
+        this.schema = schema;
+        this.preferencesStorage = preferencesStorage;
+        this.maxReportedIssues = maxReportedIssues;
+        this.maxSize = maxSize;
+        this.importedRows = meterRegistry.counter("users.import.rows", "outcome", "imported");
+        this.rejectedRows = meterRegistry.counter("users.import.rows", "outcome", "rejected");
+    }
+
+    public UserImportResponse importNdjson(InputStream inputStream) {
+        return importRows(inputStream, (input, handler) -> {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            long row = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                row++;
+                UserImportRow user;
+                try {
+                    user = rowReader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    handler.reject(row, null, MALFORMED_ROW);
+                    continue;
+                }
+                // A literal null line parses fine, into no row at all.
+                if (user == null) {
+                    handler.reject(row, null, MALFORMED_ROW);
+                    continue;
+                }
+                handler.accept(row, user);
+            }
+        });
+    }
+
+    public UserImportResponse importCsv(InputStream inputStream) {
+        return importRows(inputStream, (input, handler) -> {
+            CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+            List<String> header = reader.next();
+            if (header == null) {
+                return;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(), i);
+            }
+            if (!columns.keySet().containsAll(CSV_COLUMNS)) {
+                throw new InvalidImportException("CSV header must contain the columns " + CSV_COLUMNS + ".", null);
+            }
+
+            long row = 0;
+            List<String> fields;
+            while ((fields = reader.next()) != null) {
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                row++;
+                if (fields.size() != header.size()) {
+                    handler.reject(row, null, MALFORMED_ROW);
+                    continue;
+                }
+                UserImportRow user;
+                try {
+                    user = toImportRow(fields, columns);
+                } catch (IllegalArgumentException e) {
+                    handler.reject(row, null, MALFORMED_ROW);
+                    continue;
+                }
+                handler.accept(row, user);
+            }
+        });
+    }
+
+    private UserImportResponse importRows(InputStream body, RowSource source) {
+        long start = System.nanoTime();
+        Path spool = spool(body);
+        ImportResult result;
+        try {
+            result = transactionTemplate.execute(status -> {
+                createStagingTable();
+                RowStager stager = new RowStager();
+                stage(spool, source, stager);
+                return merge(stager);
+            });
+        } finally {
+            delete(spool);
+        }
+
+        long durationNanos = Math.max(System.nanoTime() - start, 1);
+        long rowsPerSecond = result.received() * 1_000_000_000L / durationNanos;
+        importedRows.increment(result.imported());
+        rejectedRows.increment(result.rejected());
+        log.info("Imported {} of {} users, rejected {}, in {} ms ({} rows/s)", result.imported(), result.received(),
+                result.rejected(), durationNanos / 1_000_000, rowsPerSecond);
+
+        return UserImportResponse.builder()
+                .received(result.received())
+                .imported(result.imported())
+                .rejected(result.rejected())
+                .issues(result.issues())
+                .durationMillis(durationNanos / 1_000_000)
+                .rowsPerSecond(rowsPerSecond)
+                .build();
+    }
+
+    private Path spool(InputStream body) {
+        Path spool;
+        try {
+            spool = Files.createTempFile("users-import-", ".tmp");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create a file to spool the users to import", e);
+        }
+        try (OutputStream output = Files.newOutputStream(spool)) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            long size = 0;
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                size += read;
+                if (size > maxSize.toBytes()) {
+                    throw new InvalidImportException(
+                            "Import body must not exceed " + maxSize.toBytes() + " bytes.", null);
+                }
+                output.write(buffer, 0, read);
+            }
+            return spool;
+        } catch (IOException e) {
+            delete(spool);
+            throw new UncheckedIOException("Could not read the users to import", e);
+        } catch (RuntimeException e) {
+            delete(spool);
+            throw e;
+        }
+    }
+
+    private static void delete(Path spool) {
+        try {
+            Files.deleteIfExists(spool);
+        } catch (IOException e) {
+            log.warn("Could not delete the import spool file {}", spool, e);
+        }
+    }
+
+    private void createStagingTable() {
+        jdbcTemplate.execute("""
+                CREATE TEMPORARY TABLE import_users
+                (
+                    source_row     BIGINT       NOT NULL,
+                    id             UUID         NOT NULL,
+                    username       %s.CITEXT    NOT NULL,
+                    email          VARCHAR(255) NOT NULL,
+                    first_name     VARCHAR(255),
+                    last_name      VARCHAR(255),
+                    city           VARCHAR(255),
+                    activity_mask  BIGINT       NOT NULL,
+                    activity_types TEXT[]       NOT NULL,
+                    issue          VARCHAR(255),
+                    imported       BOOLEAN      NOT NULL DEFAULT FALSE
+                ) ON COMMIT DROP
+                """.formatted(schema));
+    }
+
+    private void stage(Path spool, RowSource source, RowStager stager) {
+        // The transaction's connection, so the staged rows are visible to the merge and dropped on commit.
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (Writer copy = new BufferedWriter(new OutputStreamWriter(new PGCopyOutputStream(
+                connection.unwrap(PGConnection.class),
+                "COPY import_users (source_row, id, username, email, first_name, last_name, city, activity_mask, "
+                        + "activity_types) FROM STDIN",
+                COPY_BUFFER_SIZE), StandardCharsets.UTF_8), COPY_BUFFER_SIZE);
+             InputStream input = Files.newInputStream(spool)) {
+            stager.copy = copy;
+            source.read(input, stager);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the users to import", e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not stage the users to import", e);
+        }
+    }
+
+    private ImportResult merge(RowStager stager) {
+        // Temporary tables are never auto-analyzed, and without statistics the joins below are planned blind.
+        jdbcTemplate.execute("ANALYZE import_users");
+
+        jdbcTemplate.update("""
+                UPDATE import_users s
+                SET issue = ?
+                FROM (SELECT source_row,
+                             row_number() OVER (PARTITION BY id ORDER BY source_row)       AS id_rank,
+                             row_number() OVER (PARTITION BY username ORDER BY source_row) AS username_rank,
+                             row_number() OVER (PARTITION BY email ORDER BY source_row)    AS email_rank
+                      FROM import_users) d
+                WHERE d.source_row = s.source_row
+                  AND (d.id_rank > 1 OR d.username_rank > 1 OR d.email_rank > 1)
+                """, DUPLICATED_ROW);
+        markExisting("u.id = s.id", USER_EXISTS);
+        // Qualified like the column type, or the schema's citext operator is missed and the match is case-sensitive.
+        markExisting("u.username OPERATOR(%s.=) s.username".formatted(schema), USERNAME_TAKEN);
+        markExisting("u.email = s.email", EMAIL_IN_USE);
+
+        // Users signing up while the import runs may still win a unique key, so those rows are skipped, not fatal.
+        jdbcTemplate.update("""
+                WITH inserted AS (
+                    INSERT INTO %1$s.users (id, username, email, first_name, last_name, city, activity_mask,
+                                            preferences_stale)
+                    SELECT id, username, email, first_name, last_name, city, activity_mask, ?
+                    FROM import_users
+                    WHERE issue IS NULL
+                    ORDER BY source_row
+                    ON CONFLICT DO NOTHING
+                    RETURNING id)
+                UPDATE import_users s
+                SET imported = TRUE
+                FROM inserted i
+                WHERE s.id = i.id
+                """.formatted(schema), preferencesStorage == BITMASK);
+        jdbcTemplate.update("UPDATE import_users SET issue = ? WHERE issue IS NULL AND NOT imported", USER_EXISTS);
+
+        if (preferencesStorage != BITMASK) {
+            jdbcTemplate.update("""
+                    INSERT INTO %s.preferences (id, activity_type, user_id)
+                    SELECT gen_random_uuid(), a.activity_type, s.id
+                    FROM import_users s
+                             CROSS JOIN LATERAL unnest(s.activity_types) AS a(activity_type)
+                    WHERE s.imported
+                    """.formatted(schema));
+        }
+
+        // One statement queues every welcome email; the relay then publishes them a batch at a time.
+        jdbcTemplate.update("""
+                INSERT INTO %s.outbox_messages (id, destination, payload)
+                SELECT gen_random_uuid(), ?, json_build_object('username', CAST(username AS TEXT), 'email', email)::TEXT
+                FROM import_users
+                WHERE imported
+                ORDER BY source_row
+                """.formatted(schema), WELCOME_EMAIL_BINDING);
+
+        Long imported = jdbcTemplate.queryForObject("SELECT count(*) FROM import_users WHERE imported", Long.class);
+        List<UserImportIssue> issues = new ArrayList<>(stager.issues);
+        issues.addAll(jdbcTemplate.query("""
+                        SELECT source_row, CAST(username AS TEXT) AS username, email, issue
+                        FROM import_users
+                        WHERE issue IS NOT NULL
+                        ORDER BY source_row
+                        LIMIT ?
+                        """,
+                (rs, rowNum) -> UserImportIssue.builder()
+                        .row(rs.getLong("source_row"))
+                        .username(rs.getString("username"))
+                        .email(rs.getString("email"))
+                        .reason(rs.getString("issue"))
+                        .build(),
+                maxReportedIssues));
+        issues.sort(Comparator.comparingLong(UserImportIssue::getRow));
+
+        long importedCount = imported == null ? 0 : imported;
+        return new ImportResult(stager.received, importedCount, stager.received - importedCount,
+                issues.subList(0, Math.min(issues.size(), maxReportedIssues)));
+    }
+
+    private void markExisting(String match, String issue) {
+        jdbcTemplate.update("""
+                UPDATE import_users s
+                SET issue = ?
+                WHERE s.issue IS NULL
+                  AND EXISTS (SELECT 1 FROM %s.users u WHERE %s)
+                """.formatted(schema, match), issue);
+    }
+
+    private static UserImportRow toImportRow(List<String> fields, Map<String, Integer> columns) {
+        String preferences = fields.get(columns.get("preferences"));
+        return UserImportRow.builder()
+                .id(UUID.fromString(fields.get(columns.get("id")).trim()))
+                .username(fields.get(columns.get("username")))
+                .email(fields.get(columns.get("email")))
+                .firstName(fields.get(columns.get("first_name")))
+                .lastName(fields.get(columns.get("last_name")))
+                .city(fields.get(columns.get("city")))
+                .preferences(preferences.isEmpty()
+                        ? List.of()
+                        : Arrays.asList(preferences.split("\\" + PREFERENCES_SEPARATOR, -1)))
+                .build();
+    }
+
+    /**
+     * Validates rows and writes the valid ones to the {@code COPY} stream in its text format.
+     */
+    private class RowStager implements RowHandler {
+
+        private final List<UserImportIssue> issues = new ArrayList<>();
+        private Writer copy;
+        private long received;
+
+        @Override
+        public void accept(long row, UserImportRow user) throws IOException {
+            received++;
+            Set<ConstraintViolation<UserImportRow>> violations = validator.validate(user);
+            if (!violations.isEmpty()) {
+                addIssue(user, row, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(" ")));
+                return;
+            }
+
+            Set<ActivityType> activities = EnumSet.noneOf(ActivityType.class);
+            for (String preference : user.getPreferences() == null ? List.<String>of() : user.getPreferences()) {
+                try {
+                    activities.add(ActivityType.from(preference));
+                } catch (NoSuchElementException e) {
+                    addIssue(user, row, "Unknown preference: " + preference + ".");
+                    return;
+                }
+            }
+
+            writeField(String.valueOf(row));
+            writeField(user.getId().toString());
+            writeField(user.getUsername());
+            writeField(user.getEmail());
+            writeField(user.getFirstName());
+            writeField(user.getLastName());
+            writeField(user.getCity());
+            writeField(String.valueOf(ActivityType.toMask(activities)));
+            copy.write(activities.stream().map(Enum::name).collect(Collectors.joining(",", "{", "}")));
+            copy.write('\n');
+        }
+
+        @Override
+        public void reject(long row, UserImportRow user, String reason) {
+            received++;
+            addIssue(user, row, reason);
+        }
+
+        private void addIssue(UserImportRow user, long row, String reason) {
+            if (issues.size() < maxReportedIssues) {
+                issues.add(UserImportIssue.builder()
+                        .row(row)
+                        .username(user == null ? null : user.getUsername())
+                        .email(user == null ? null : user.getEmail())
+                        .reason(reason)
+                        .build());
+            }
+        }
+
+        private void writeField(String value) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\' -> copy.write("\\\\");
+                    case '\t' -> copy.write("\\t");
+                    case '\n' -> copy.write("\\n");
+                    case '\r' -> copy.write("\\r");
+                    default -> copy.write(c);
+                }
+            }
+            copy.write('\t');
+        }
+    }
+
+    private interface RowHandler {
+
+        void accept(long row, UserImportRow user) throws IOException;
+
+        void reject(long row, UserImportRow user, String reason);
+    }
+
+    @FunctionalInterface
+    private interface RowSource {
+        void read(InputStream input, RowHandler handler) throws IOException;
+    }
+
+    private record ImportResult(long received, long imported, long rejected, List<UserImportIssue> issues) {
+    }
+}
@@ -0,0 +1,85 @@
+package com.whatstheplan.users.services;
+
+import com.whatstheplan.users.exceptions.InvalidCursorException;
+import com.whatstheplan.users.model.projection.UserSearchView;
+import com.whatstheplan.users.model.response.UserSearchResponse;
+import com.whatstheplan.users.model.response.UserSearchResultResponse;
+import com.whatstheplan.users.repository.UsersRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Typo-tolerant people search over username, names and city, backed by the {@code pg_trgm} index on
+ * {@code users.search_text}. Pages are keyset-paginated on (score, id) so deep pages cost the same as the first.
+ */
+@Slf4j
+@Service
+public class UserSearchService {
+
+    private static final String CURSOR_SEPARATOR = ":";
+
+    private final UsersRepository usersRepository;
+    private final String statementTimeout;
+    private final String similarityThreshold;
+
+    public UserSearchService(UsersRepository usersRepository,
+                             @Value("${users.search.people.statement-timeout}") Duration statementTimeout,
+                             @Value("${users.search.people.similarity-threshold}") double similarityThreshold) {
+        this.usersRepository = usersRepository;
+        this.statementTimeout = String.valueOf(statementTimeout.toMillis());
+        this.similarityThreshold = String.valueOf(similarityThreshold);
+    }
+
+    @Transactional(readOnly = true)
+    public UserSearchResponse search(String query, int limit, String cursor) {
+        usersRepository.configureSearch(statementTimeout, similarityThreshold);
+
+        List<UserSearchView> found;
+        if (cursor == null) {
+            found = usersRepository.search(query, limit);
+        } else {
+            Cursor after = Cursor.decode(cursor);
+            found = usersRepository.searchAfter(query, after.score(), after.id(), limit);
+        }
+
+        List<UserSearchResultResponse> results = found.stream()
+                .map(UserSearchResultResponse::from)
+                .toList();
+        String nextCursor = null;
+        if (results.size() == limit) {
+            UserSearchResultResponse last = results.get(results.size() - 1);
+            nextCursor = new Cursor(last.getScore(), last.getId()).encode();
+        }
+        return UserSearchResponse.builder()
+                .results(results)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private record Cursor(float score, UUID id) {
+
+        private String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((score + CURSOR_SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static Cursor decode(String cursor) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf(CURSOR_SEPARATOR);
+                return new Cursor(Float.parseFloat(decoded.substring(0, separator)),
+                        UUID.fromString(decoded.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new InvalidCursorException("Malformed search cursor: " + cursor, e);
+            }
+        }
+    }
+}
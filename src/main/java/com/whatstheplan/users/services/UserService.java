@@ -1,74 +1,238 @@
 package com.whatstheplan.users.services;
 
-import com.whatstheplan.users.exceptions.EmailAlreadyExistsException;
 import com.whatstheplan.users.exceptions.UserNotExistsException;
 import com.whatstheplan.users.exceptions.UsernameAlreadyExistsException;
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.AuthenticatedUser;
+import com.whatstheplan.users.model.PreferencesStorage;
+import com.whatstheplan.users.model.SignupConflict;
+import com.whatstheplan.users.model.entities.Preferences;
 import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.event.UserChangedEvent;
+import com.whatstheplan.users.model.projection.BasicUserView;
 import com.whatstheplan.users.model.request.UserProfileRequest;
+import com.whatstheplan.users.model.response.BasicUserResponse;
+import com.whatstheplan.users.model.response.BasicUsersBatchResponse;
+import com.whatstheplan.users.model.response.BasicUsersPageResponse;
+import com.whatstheplan.users.model.response.UserResponse;
 import com.whatstheplan.users.repository.PreferencesRepository;
 import com.whatstheplan.users.repository.UsersRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
-import static com.whatstheplan.users.utils.Utils.getUserId;
+import static com.whatstheplan.users.model.PreferencesStorage.BITMASK;
+import static com.whatstheplan.users.utils.Utils.USERNAME_KEY;
+import static com.whatstheplan.users.utils.Utils.eTag;
+import static com.whatstheplan.users.utils.Utils.violatedConstraint;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    private static final UUID FIRST_USER_ID = new UUID(0L, 0L);
+    private static final int MAX_INSERT_ATTEMPTS = 2;
+
     private final UsersRepository usersRepository;
     private final PreferencesRepository preferencesRepository;
     private final EmailService emailService;
+    private final UserCacheService userCacheService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${users.preferences.storage}")
+    private PreferencesStorage preferencesStorage;
+
+    public BasicUserResponse getBasicUserInfo(UUID userId) {
+        return userCacheService.findBasicUserInfo(userId)
+                .orElseThrow(() -> new UserNotExistsException("User not found with userId: " + userId, null));
+    }
+
+    public UserResponse getUserProfile(UUID userId) {
+        return userCacheService.findUserProfile(userId)
+                .orElseThrow(() -> new UserNotExistsException("User not found with userId: " + userId, null));
+    }
 
-    public User getUserById(UUID userId) {
-        return usersRepository.findById(userId)
+    public String getUserETag(UUID userId) {
+        return userCacheService.findUserVersion(userId)
+                .map(lastModifiedDate -> eTag(userId, lastModifiedDate))
                 .orElseThrow(() -> new UserNotExistsException("User not found with userId: " + userId, null));
     }
 
+    public BasicUsersBatchResponse getBasicUsersInfo(Collection<UUID> userIds) {
+        Set<UUID> requestedIds = new LinkedHashSet<>(userIds);
+        Map<UUID, BasicUserResponse> found = new LinkedHashMap<>();
+        for (BasicUserView user : usersRepository.findAllByIdIn(requestedIds)) {
+            found.put(user.getId(), BasicUserResponse.from(user));
+        }
+
+        List<UUID> missing = requestedIds.stream()
+                .filter(userId -> !found.containsKey(userId))
+                .toList();
+
+        return BasicUsersBatchResponse.builder()
+                .users(found)
+                .missing(missing)
+                .build();
+    }
+
+    /**
+     * Users in {@code city} interested in any of {@code activityTypes}, ordered by id and starting after
+     * {@code afterId}, so each page is a range scan on the city index regardless of how deep it is.
+     */
+    public BasicUsersPageResponse findUsersByActivities(Set<ActivityType> activityTypes, String city,
+                                                        UUID afterId, int limit) {
+        UUID after = afterId == null ? FIRST_USER_ID : afterId;
+        List<BasicUserView> found = preferencesStorage == BITMASK
+                ? usersRepository.findByCityAndActivityMask(city, ActivityType.toMask(activityTypes), after, limit)
+                : usersRepository.findByCityAndPreferences(city, activityTypes.stream().map(Enum::name).toList(),
+                after, limit);
+
+        List<BasicUserResponse> users = found.stream()
+                .map(BasicUserResponse::from)
+                .toList();
+        return BasicUsersPageResponse.builder()
+                .users(users)
+                .nextCursor(users.size() == limit ? users.get(users.size() - 1).getId() : null)
+                .build();
+    }
+
+    /**
+     * Creates the profile with a single conflict-tolerant insert. A duplicate is a normal result rather than a
+     * failed statement: the transaction stays usable, and one more query tells which unique key was taken.
+     */
     @Transactional
-    public User saveUser(UserProfileRequest request) {
-        try {
-            log.info("Saving into database user with data: {}", request);
-            User user = usersRepository.save(request.toEntity());
-            emailService.sendWelcomeEmail(user.getUsername(), user.getEmail());
-            return user;
-        } catch (DataIntegrityViolationException e) {
-            if (e.getMessage().contains("users_email_key")) {
-                throw new EmailAlreadyExistsException("Email is already in use.", e);
-            } else if (e.getMessage().contains("users_username_key")) {
-                throw new UsernameAlreadyExistsException("Username is already taken.", e);
-            } else {
-                throw e;
+    public SignupResult saveUser(AuthenticatedUser authenticatedUser, UserProfileRequest request) {
+        log.debug("Saving into database user: {}", authenticatedUser.getId());
+        User user = request.toEntity(authenticatedUser);
+        for (int attempt = 1; ; attempt++) {
+            Optional<UUID> inserted = usersRepository.insertIfAbsent(user.getId(), user.getUsername(), user.getEmail(),
+                    user.getFirstName(), user.getLastName(), user.getCity(), ActivityType.toMask(user.getActivities()),
+                    preferencesStorage == BITMASK, user.getCreatedDate());
+            if (inserted.isPresent()) {
+                savePreferences(user);
+                emailService.sendWelcomeEmail(user.getUsername(), user.getEmail());
+                eventPublisher.publishEvent(UserChangedEvent.from(user));
+                return SignupResult.created(user);
+            }
+
+            Optional<SignupConflict> conflict = usersRepository.findSignupConflict(user.getId(), user.getUsername(),
+                            user.getEmail())
+                    .map(SignupConflict::valueOf);
+            if (conflict.isPresent()) {
+                log.info("User {} not saved: {}", user.getId(), conflict.get());
+                return SignupResult.conflict(conflict.get());
+            }
+            // The conflicting user was deleted in between, so inserting again may succeed.
+            if (attempt == MAX_INSERT_ATTEMPTS) {
+                throw new IllegalStateException("Could not insert user " + user.getId() + " nor find what it conflicts with");
             }
         }
     }
 
     @Transactional
-    public User updateUser(UserProfileRequest request) {
+    public User updateUser(AuthenticatedUser authenticatedUser, UserProfileRequest request) {
         try {
-            log.info("Updating into database user with data: {}", request);
-
-            return usersRepository.findById(getUserId())
-                    .map(user -> {
-                        User updatedUser = request.toEntity();
-                        updatedUser.setId(user.getId());
-                        updatedUser.setEmail(user.getEmail());
-                        preferencesRepository.deleteAllByUser(user);
-                        return usersRepository.save(updatedUser);
-                    })
-                    .orElseThrow(() -> new UserNotExistsException("User not found with userId: " + getUserId(), null));
+            log.debug("Updating into database user: {}", authenticatedUser.getId());
+
+            UUID userId = authenticatedUser.getId();
+            User user = usersRepository.findById(userId)
+                    .orElseThrow(() -> new UserNotExistsException("User not found with userId: " + userId, null));
+
+            User requested = request.toEntity(authenticatedUser);
+            // Checked up front so the usual clash never reaches the unique key; a concurrent rename still can.
+            if (!user.getUsername().equalsIgnoreCase(requested.getUsername())
+                    && usersRepository.existsByUsernameIgnoringCase(requested.getUsername())) {
+                throw new UsernameAlreadyExistsException("Username is already taken.", null);
+            }
+            user.setUsername(requested.getUsername());
+            user.setFirstName(requested.getFirstName());
+            user.setLastName(requested.getLastName());
+            user.setCity(requested.getCity());
+            user.setActivities(requested.getActivities());
+            user.setPreferencesStale(preferencesStorage == BITMASK);
+            if (preferencesStorage != BITMASK) {
+                updatePreferences(user, requested.getActivities());
+            }
+
+            User updatedUser = usersRepository.saveAndFlush(user);
+            eventPublisher.publishEvent(UserChangedEvent.from(user));
+            return updatedUser;
         } catch (DataIntegrityViolationException e) {
-            if (e.getMessage().contains("users_username_key")) {
+            if (violatedConstraint(e).filter(USERNAME_KEY::equals).isPresent()) {
                 throw new UsernameAlreadyExistsException("Username is already taken.", e);
             } else {
                 throw e;
             }
         }
     }
+
+    private void updatePreferences(User user, Set<ActivityType> requestedActivities) {
+        Set<ActivityType> storedActivities = EnumSet.noneOf(ActivityType.class);
+        user.getPreferences().forEach(preference -> storedActivities.add(preference.getActivityType()));
+
+        Set<ActivityType> removedActivities = EnumSet.noneOf(ActivityType.class);
+        removedActivities.addAll(storedActivities);
+        removedActivities.removeAll(requestedActivities);
+
+        // In request order, like the rows of a new user.
+        Set<ActivityType> addedActivities = new LinkedHashSet<>(requestedActivities);
+        addedActivities.removeAll(storedActivities);
+
+        if (!removedActivities.isEmpty()) {
+            preferencesRepository.deleteAllByUserIdAndActivityTypeIn(user.getId(), removedActivities);
+            user.getPreferences().removeIf(preference -> removedActivities.contains(preference.getActivityType()));
+        }
+        if (!addedActivities.isEmpty()) {
+            List<Preferences> addedPreferences = addedActivities.stream()
+                    .map(activityType -> new Preferences(null, activityType, user))
+                    .toList();
+            user.getPreferences().addAll(preferencesRepository.saveAll(addedPreferences));
+        }
+    }
+
+    private void savePreferences(User user) {
+        if (preferencesStorage == BITMASK || user.getActivities().isEmpty()) {
+            user.setPreferences(new ArrayList<>());
+            return;
+        }
+        // The user was inserted outside the persistence context; a reference only carries its id to the foreign key.
+        User reference = usersRepository.getReferenceById(user.getId());
+        user.setPreferences(preferencesRepository.saveAll(user.getActivities().stream()
+                .map(activityType -> new Preferences(null, activityType, reference))
+                .toList()));
+    }
+
+    /**
+     * Outcome of a signup: the created user, or the conflict that prevented it.
+     */
+    public record SignupResult(User user, SignupConflict conflict) {
+
+        static SignupResult created(User user) {
+            return new SignupResult(user, null);
+        }
+
+        static SignupResult conflict(SignupConflict conflict) {
+            return new SignupResult(null, conflict);
+        }
+
+        public boolean isCreated() {
+            return user != null;
+        }
+    }
 }
@@ -0,0 +1,216 @@
+package com.whatstheplan.users.services;
+
+import com.whatstheplan.users.model.event.UserChangedEvent;
+import com.whatstheplan.users.model.projection.BasicUserView;
+import com.whatstheplan.users.model.response.UsernameSuggestionResponse;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.utils.RadixTrie;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Case-insensitive username autocomplete served from memory. The index is loaded from the database on startup and
+ * kept current from {@link UserChangedEvent}s of this instance and, through {@link UsersChangedListener}, from
+ * changes committed by other instances.
+ */
+@Slf4j
+@Service
+public class UsernameSearchService implements SmartLifecycle {
+
+    private final UsersRepository usersRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int loadBatchSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile UsernameIndex index = new UsernameIndex();
+    private UsernameIndex loading;
+    private volatile boolean running;
+
+    public UsernameSearchService(UsersRepository usersRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${users.search.load-batch-size}") int loadBatchSize) {
+        this.usersRepository = usersRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.loadBatchSize = loadBatchSize;
+        Gauge.builder("users.search.index.size", this, UsernameSearchService::size)
+                .register(meterRegistry);
+    }
+
+    public List<UsernameSuggestionResponse> search(String prefix, int limit) {
+        String key = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            return index.trie.findByPrefix(key, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.trie.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads the whole index from the database. Searches keep being served from the previous index until the new
+     * one is complete, and changes seen while loading are applied to both.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            loading = new UsernameIndex();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<BasicUserView> users = usersRepository.streamAllBy()) {
+                    List<BasicUserView> batch = new ArrayList<>(loadBatchSize);
+                    users.forEach(user -> {
+                        batch.add(user);
+                        if (batch.size() == loadBatchSize) {
+                            load(batch);
+                            batch.clear();
+                        }
+                    });
+                    load(batch);
+                }
+            });
+        } finally {
+            lock.writeLock().lock();
+            try {
+                index = loading;
+                loading = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Loaded {} usernames into the search index in {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        put(UsernameSuggestionResponse.builder()
+                .id(event.getUserId())
+                .username(event.getUsername())
+                .build());
+    }
+
+    /**
+     * Applies changes that were not made through this instance: {@code users} holds the current state of the re-read
+     * {@code userIds}, and those missing from it were deleted.
+     */
+    public void refresh(Collection<UUID> userIds, Collection<? extends BasicUserView> users) {
+        Set<UUID> deleted = new HashSet<>(userIds);
+        List<UsernameSuggestionResponse> changed = new ArrayList<>(users.size());
+        for (BasicUserView user : users) {
+            deleted.remove(user.getId());
+            changed.add(UsernameSuggestionResponse.from(user));
+        }
+        update(index -> {
+            changed.forEach(index::put);
+            deleted.forEach(index::remove);
+        });
+    }
+
+    @Override
+    public void start() {
+        rebuild();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void load(List<BasicUserView> users) {
+        lock.writeLock().lock();
+        try {
+            for (BasicUserView user : users) {
+                // Anything already indexed came from a change event and is newer than this snapshot.
+                if (!loading.keys.containsKey(user.getId())) {
+                    loading.put(UsernameSuggestionResponse.from(user));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(UsernameSuggestionResponse user) {
+        update(index -> index.put(user));
+    }
+
+    private void update(Consumer<UsernameIndex> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (loading != null) {
+                change.accept(loading);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class UsernameIndex {
+
+        private final RadixTrie<UsernameSuggestionResponse> trie = new RadixTrie<>();
+        private final Map<UUID, String> keys = new HashMap<>();
+
+        private void put(UsernameSuggestionResponse user) {
+            String key = normalize(user.getUsername());
+            String previousKey = keys.put(user.getId(), key);
+            if (previousKey != null && !previousKey.equals(key)) {
+                trie.remove(previousKey);
+            }
+            trie.put(key, user);
+        }
+
+        private void remove(UUID userId) {
+            String key = keys.remove(userId);
+            if (key != null) {
+                trie.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.whatstheplan.users.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.whatstheplan.users.model.event.UserChangedEvent;
+import com.whatstheplan.users.model.projection.UserIndexView;
+import com.whatstheplan.users.repository.UsersRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.ConnectionHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the caches and in-memory indexes of this instance in line with changes committed elsewhere, through the
+ * {@code users_changed} notifications of the V2 triggers. The listener thread only evicts cached users, once per id
+ * in each poll, and queues the ids for the refresher thread, which re-reads them in batches shared by all indexes.
+ * Changes this instance made itself are already in the indexes through {@link UserChangedEvent}, so they are
+ * recognised by the backend pid and user id of the notification and not re-read.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(value = "users.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class UsersChangedListener implements SmartLifecycle {
+
+    public static final String USERS_CHANGED_CHANNEL = "users_changed";
+
+    // Only outlives its notification when the transaction failed after its event, or the listener was reconnecting.
+    private static final Duration APPLIED_CHANGE_RETENTION = Duration.ofMinutes(1);
+
+    private final DataSource dataSource;
+    private final UsersRepository usersRepository;
+    private final UserCacheService userCacheService;
+    private final UsernameSearchService usernameSearchService;
+    private final ActivityIndexService activityIndexService;
+    private final AvailabilityService availabilityService;
+    private final Duration pollTimeout;
+    private final Duration reconnectDelay;
+    private final int refreshBatchSize;
+    private final BlockingQueue<UUID> pendingRefreshes;
+    private final Cache<AppliedChange, Boolean> appliedChanges = Caffeine.newBuilder()
+            .expireAfterWrite(APPLIED_CHANGE_RETENTION)
+            .build();
+    private final AtomicBoolean refreshesOverflowed = new AtomicBoolean();
+    private final Counter invalidations;
+    private final Counter flushes;
+    private final Counter refreshes;
+    private final Counter skippedRefreshes;
+    private final AtomicLong connections = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile int backendPid;
+    private Thread listenerThread;
+    private Thread refresherThread;
+
+    public UsersChangedListener(DataSource dataSource,
+                                UsersRepository usersRepository,
+                                UserCacheService userCacheService,
+                                UsernameSearchService usernameSearchService,
+                                ActivityIndexService activityIndexService,
+                                AvailabilityService availabilityService,
+                                MeterRegistry meterRegistry,
+                                @Value("${users.cache.invalidation.poll-timeout}") Duration pollTimeout,
+                                @Value("${users.cache.invalidation.reconnect-delay}") Duration reconnectDelay,
+                                @Value("${users.cache.invalidation.refresh-queue-capacity}") int refreshQueueCapacity,
+                                @Value("${users.search.load-batch-size}") int refreshBatchSize) {
+        this.dataSource = dataSource;
+        this.usersRepository = usersRepository;
+        this.userCacheService = userCacheService;
+        this.usernameSearchService = usernameSearchService;
+        this.activityIndexService = activityIndexService;
+        this.availabilityService = availabilityService;
+        this.pollTimeout = pollTimeout;
+        this.reconnectDelay = reconnectDelay;
+        this.refreshBatchSize = refreshBatchSize;
+        this.pendingRefreshes = new LinkedBlockingQueue<>(refreshQueueCapacity);
+        this.invalidations = meterRegistry.counter("users.cache.invalidations");
+        this.flushes = meterRegistry.counter("users.cache.flushes");
+        this.refreshes = meterRegistry.counter("users.index.refreshes");
+        this.skippedRefreshes = meterRegistry.counter("users.index.refreshes.skipped");
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "users-changed-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        refresherThread = new Thread(this::refreshIndexes, "users-index-refresher");
+        refresherThread.setDaemon(true);
+        refresherThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        listenerThread.interrupt();
+        refresherThread.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getConnections() {
+        return connections.get();
+    }
+
+    public int getBackendPid() {
+        return backendPid;
+    }
+
+    /**
+     * Remembers which backend is about to notify about a change the indexes are given through this very event.
+     * Recorded before the commit, so the mark is always in place by the time the notification can arrive.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onUserChanged(UserChangedEvent event) {
+        if (TransactionSynchronizationManager.getResource(dataSource) instanceof ConnectionHolder holder) {
+            try {
+                int pid = holder.getConnection().unwrap(PGConnection.class).getBackendPID();
+                appliedChanges.put(new AppliedChange(pid, event.getUserId()), Boolean.TRUE);
+            } catch (SQLException e) {
+                log.debug("Could not tell the backend of the change to user {}: {}", event.getUserId(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection listenerConnection = dataSource.getConnection()) {
+                PGConnection pgConnection = listenerConnection.unwrap(PGConnection.class);
+                try (Statement statement = listenerConnection.createStatement()) {
+                    statement.execute("LISTEN " + USERS_CHANGED_CHANNEL);
+                }
+                backendPid = pgConnection.getBackendPID();
+
+                // Changes committed while this instance was not listening were never delivered.
+                log.info("Listening for user changes on channel {}, flushing user caches", USERS_CHANGED_CHANNEL);
+                flushes.increment();
+                userCacheService.evictAll();
+                if (connections.getAndIncrement() > 0) {
+                    rebuildIndexes();
+                }
+
+                receive(listenerConnection, pgConnection);
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Lost connection listening for user changes, reconnecting in {}: {}",
+                            reconnectDelay, e.getMessage());
+                    sleep(reconnectDelay);
+                }
+            }
+        }
+    }
+
+    private void receive(Connection listenerConnection, PGConnection pgConnection) throws SQLException {
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+            if (notifications == null || notifications.length == 0) {
+                if (!listenerConnection.isValid((int) pollTimeout.toSeconds())) {
+                    throw new SQLException("Listener connection is no longer valid");
+                }
+                continue;
+            }
+            invalidate(notifications);
+        }
+    }
+
+    private void invalidate(PGNotification[] notifications) {
+        Set<UUID> evicted = new LinkedHashSet<>();
+        Set<UUID> changedElsewhere = new LinkedHashSet<>();
+        for (PGNotification notification : notifications) {
+            UUID userId;
+            try {
+                userId = UUID.fromString(notification.getParameter());
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring malformed user change notification: {}", notification.getParameter());
+                continue;
+            }
+            if (evicted.add(userId)) {
+                userCacheService.evict(userId);
+                invalidations.increment();
+            }
+            if (appliedChanges.asMap().remove(new AppliedChange(notification.getPID(), userId)) != null) {
+                skippedRefreshes.increment();
+            } else {
+                changedElsewhere.add(userId);
+            }
+        }
+        for (UUID userId : changedElsewhere) {
+            if (!pendingRefreshes.offer(userId)) {
+                refreshesOverflowed.set(true);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Runs on the refresher thread, so a slow database never holds up evictions. Whatever queued up while a batch
+     * was being read goes into the next one; if more piled up than the queue holds, the indexes are rebuilt instead.
+     */
+    private void refreshIndexes() {
+        List<UUID> batch = new ArrayList<>(refreshBatchSize);
+        while (running) {
+            try {
+                UUID userId = pendingRefreshes.poll(pollTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                if (refreshesOverflowed.getAndSet(false)) {
+                    log.warn("Too many user changes to refresh one by one, rebuilding the in-memory indexes");
+                    pendingRefreshes.clear();
+                    rebuildIndexes();
+                    continue;
+                }
+                if (userId == null) {
+                    continue;
+                }
+                batch.add(userId);
+                pendingRefreshes.drainTo(batch, refreshBatchSize - 1);
+                refresh(new LinkedHashSet<>(batch));
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void refresh(Set<UUID> userIds) {
+        try {
+            List<UserIndexView> users = usersRepository.findIndexViewsByIdIn(userIds);
+            usernameSearchService.refresh(userIds, users);
+            activityIndexService.refresh(userIds, users);
+            availabilityService.refresh(users);
+            refreshes.increment(userIds.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh {} users in the in-memory indexes: {}", userIds.size(), e.getMessage());
+        }
+    }
+
+    // Called from both threads: on reconnecting, and when the refresh queue overflowed.
+    private synchronized void rebuildIndexes() {
+        try {
+            usernameSearchService.rebuild();
+            activityIndexService.rebuild();
+            availabilityService.rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the in-memory indexes: {}", e.getMessage());
+        }
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record AppliedChange(int backendPid, UUID userId) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.whatstheplan.users.utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Set membership with false positives but no false negatives: {@link #mightContain} returning {@code false} means
+ * the key was never added. Sized up front for an expected number of keys and false-positive rate; adding more keys
+ * than that keeps it correct but raises the rate. Keys cannot be removed. Not thread-safe.
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long[] words;
+    private final long bitCount;
+    private final int hashCount;
+    private long setBits;
+
+    public BloomFilter(long expectedKeys, double falsePositiveRate) {
+        if (expectedKeys < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Expected keys must be positive and the false-positive rate in (0, 1)");
+        }
+        long bits = Math.max(64, (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (LN2 * LN2)));
+        this.words = new long[(int) ((bits + 63) / 64)];
+        this.bitCount = words.length * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedKeys * LN2));
+    }
+
+    public void put(String key) {
+        long hash = hash(key);
+        // Double hashing: the k probes are h1 + i * h2, which behaves like k independent hashes.
+        long h1 = hash;
+        long h2 = Long.rotateLeft(hash, 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((words[word] & mask) == 0) {
+                words[word] |= mask;
+                setBits++;
+            }
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        long h1 = hash;
+        long h2 = Long.rotateLeft(hash, 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Probability that {@link #mightContain} answers {@code true} for a key that was never added, given how full
+     * the filter currently is.
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) setBits / bitCount, hashCount);
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so that both halves are well spread.
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,86 @@
+package com.whatstheplan.users.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 records one at a time: fields may be quoted, quotes inside them are doubled, and quoted fields may
+ * span lines. Only the current record is held in memory. Not thread-safe.
+ */
+public class CsvReader {
+
+    private static final int END = -1;
+
+    private final Reader reader;
+    private int pending = END - 1;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the fields of the next record, or {@code null} once the input is exhausted
+     */
+    public List<String> next() throws IOException {
+        int c = read();
+        if (c == END) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == END) {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == END || c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c == '\r') {
+                int following = read();
+                if (following != '\n') {
+                    unread(following);
+                }
+                fields.add(field.toString());
+                return fields;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != END - 1) {
+            int c = pending;
+            pending = END - 1;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+}
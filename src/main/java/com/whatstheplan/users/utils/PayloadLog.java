@@ -0,0 +1,19 @@
+package com.whatstheplan.users.utils;
+
+import lombok.experimental.UtilityClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Full request and response bodies carry personal data, so they are only logged when the
+ * {@code com.whatstheplan.users.payloads} logger is set to DEBUG while investigating an issue.
+ */
+@UtilityClass
+public class PayloadLog {
+
+    private static final Logger log = LoggerFactory.getLogger("com.whatstheplan.users.payloads");
+
+    public static void debug(String description, Object payload) {
+        log.debug("{}: {}", description, payload);
+    }
+}
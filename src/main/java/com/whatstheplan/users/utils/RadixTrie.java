@@ -0,0 +1,215 @@
+package com.whatstheplan.users.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compressed prefix tree: chains of single-child nodes are collapsed into one edge label, so the node count stays
+ * proportional to the number of keys rather than their total length. Children are kept sorted, which makes prefix
+ * lookups return values in key order. Not thread-safe.
+ */
+public class RadixTrie<V> {
+
+    private final Node<V> root = new Node<>("", null);
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public V get(String key) {
+        Node<V> node = root;
+        int offset = 0;
+        while (offset < key.length()) {
+            int index = node.indexOf(key.charAt(offset));
+            if (index < 0) {
+                return null;
+            }
+            Node<V> child = node.children[index];
+            if (!key.startsWith(child.label, offset)) {
+                return null;
+            }
+            node = child;
+            offset += child.label.length();
+        }
+        return node.value;
+    }
+
+    public V put(String key, V value) {
+        Node<V> node = root;
+        int offset = 0;
+        while (offset < key.length()) {
+            int index = node.indexOf(key.charAt(offset));
+            if (index < 0) {
+                node.insertChild(-index - 1, new Node<>(key.substring(offset), value));
+                size++;
+                return null;
+            }
+            Node<V> child = node.children[index];
+            int common = commonPrefixLength(child.label, key, offset);
+            if (common < child.label.length()) {
+                Node<V> split = new Node<>(child.label.substring(0, common), null);
+                child.label = child.label.substring(common);
+                split.children = newArray(child);
+                node.children[index] = split;
+                child = split;
+            }
+            node = child;
+            offset += common;
+        }
+        V previous = node.value;
+        node.value = value;
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    public V remove(String key) {
+        Node<V> parent = null;
+        Node<V> node = root;
+        int offset = 0;
+        while (offset < key.length()) {
+            int index = node.indexOf(key.charAt(offset));
+            if (index < 0) {
+                return null;
+            }
+            Node<V> child = node.children[index];
+            if (!key.startsWith(child.label, offset)) {
+                return null;
+            }
+            parent = node;
+            node = child;
+            offset += child.label.length();
+        }
+        V previous = node.value;
+        if (previous == null) {
+            return null;
+        }
+        node.value = null;
+        size--;
+        if (parent == null) {
+            return previous;
+        }
+
+        if (node.children.length == 0) {
+            parent.removeChild(parent.indexOf(node.label.charAt(0)));
+            if (parent != root && parent.value == null && parent.children.length == 1) {
+                parent.mergeWithOnlyChild();
+            }
+        } else if (node.children.length == 1) {
+            node.mergeWithOnlyChild();
+        }
+        return previous;
+    }
+
+    /**
+     * Returns up to {@code limit} values whose keys start with {@code prefix}, in key order.
+     */
+    public List<V> findByPrefix(String prefix, int limit) {
+        List<V> found = new ArrayList<>(Math.min(limit, 16));
+        Node<V> node = root;
+        int offset = 0;
+        while (offset < prefix.length()) {
+            int index = node.indexOf(prefix.charAt(offset));
+            if (index < 0) {
+                return found;
+            }
+            Node<V> child = node.children[index];
+            int common = commonPrefixLength(child.label, prefix, offset);
+            if (offset + common < prefix.length() && common < child.label.length()) {
+                return found;
+            }
+            node = child;
+            offset += common;
+        }
+        collect(node, limit, found);
+        return found;
+    }
+
+    private static <V> void collect(Node<V> node, int limit, List<V> found) {
+        if (node.value != null) {
+            found.add(node.value);
+        }
+        for (Node<V> child : node.children) {
+            if (found.size() >= limit) {
+                return;
+            }
+            collect(child, limit, found);
+        }
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int length = 0;
+        while (length < max && label.charAt(length) == key.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V>[] newArray(Node<V> child) {
+        return new Node[]{child};
+    }
+
+    private static final class Node<V> {
+
+        @SuppressWarnings("rawtypes")
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private String label;
+        private V value;
+        private Node<V>[] children;
+
+        @SuppressWarnings("unchecked")
+        private Node(String label, V value) {
+            this.label = label;
+            this.value = value;
+            this.children = NO_CHILDREN;
+        }
+
+        private int indexOf(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char candidate = children[middle].label.charAt(0);
+                if (candidate < first) {
+                    low = middle + 1;
+                } else if (candidate > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void insertChild(int index, Node<V> child) {
+            Node<V>[] grown = Arrays.copyOf(children, children.length + 1);
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            grown[index] = child;
+            children = grown;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void removeChild(int index) {
+            if (children.length == 1) {
+                children = NO_CHILDREN;
+                return;
+            }
+            Node<V>[] shrunk = Arrays.copyOf(children, children.length - 1);
+            System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+            children = shrunk;
+        }
+
+        private void mergeWithOnlyChild() {
+            Node<V> child = children[0];
+            label = label + child.label;
+            value = child.value;
+            children = child.children;
+        }
+    }
+}
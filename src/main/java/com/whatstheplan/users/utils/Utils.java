@@ -1,28 +1,40 @@
 package com.whatstheplan.users.utils;
 
-import com.whatstheplan.users.exceptions.MissingEmailInTokenException;
 import lombok.experimental.UtilityClass;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.oauth2.jwt.Jwt;
+import org.hibernate.exception.ConstraintViolationException;
+import org.postgresql.util.PSQLException;
+import org.postgresql.util.ServerErrorMessage;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
 @UtilityClass
 public class Utils {
 
-    public static UUID getUserId() {
-        return Optional.ofNullable(SecurityContextHolder.getContext().getAuthentication())
-                .map(Authentication::getName)
-                .map(UUID::fromString)
-                .orElseThrow(() -> new MissingEmailInTokenException("Invalid token, user id not found.", null));
-    }
+    // The unique constraints Postgres named after the columns of V1's users table.
+    public static final String USERNAME_KEY = "users_username_key";
+    public static final String EMAIL_KEY = "users_email_key";
 
-    public static String getUserEmail() {
-        return Optional.ofNullable(SecurityContextHolder.getContext().getAuthentication())
-                .map(auth -> ((Jwt) auth.getPrincipal()).getClaimAsString("email"))
-                .orElseThrow(() -> new MissingEmailInTokenException("Invalid token, email not found.", null));
+    public static String eTag(UUID userId, Instant lastModifiedDate) {
+        return "\"" + userId + "-" + Long.toHexString(lastModifiedDate.getEpochSecond())
+                + "." + Integer.toHexString(lastModifiedDate.getNano()) + "\"";
     }
 
+    /**
+     * Name of the constraint the database reported as violated, whether the write went through Hibernate or JDBC.
+     */
+    public static Optional<String> violatedConstraint(DataIntegrityViolationException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return Optional.of(violation.getConstraintName());
+            }
+            if (cause instanceof PSQLException psqlException) {
+                return Optional.ofNullable(psqlException.getServerErrorMessage())
+                        .map(ServerErrorMessage::getConstraint);
+            }
+        }
+        return Optional.empty();
+    }
 }
@@ -0,0 +1,35 @@
+CREATE OR REPLACE FUNCTION notify_users_changed() RETURNS TRIGGER AS
+$$
+DECLARE
+    changed_user_id UUID;
+BEGIN
+    IF TG_TABLE_NAME = 'users' THEN
+        IF TG_OP = 'DELETE' THEN
+            changed_user_id := OLD.id;
+        ELSE
+            changed_user_id := NEW.id;
+        END IF;
+    ELSE
+        IF TG_OP = 'DELETE' THEN
+            changed_user_id := OLD.user_id;
+        ELSE
+            changed_user_id := NEW.user_id;
+        END IF;
+    END IF;
+
+    PERFORM pg_notify('users_changed', changed_user_id::TEXT);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_users_changed
+    AFTER INSERT OR UPDATE OR DELETE
+    ON users
+    FOR EACH ROW
+EXECUTE PROCEDURE notify_users_changed();
+
+CREATE TRIGGER trg_preferences_changed
+    AFTER INSERT OR UPDATE OR DELETE
+    ON preferences
+    FOR EACH ROW
+EXECUTE PROCEDURE notify_users_changed();
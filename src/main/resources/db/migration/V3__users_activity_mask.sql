@@ -0,0 +1,53 @@
+ALTER TABLE users
+    ADD COLUMN activity_mask BIGINT NOT NULL DEFAULT 0;
+
+WITH activity_bits (activity_type, bit_position) AS (VALUES
+                                                 ('SOCCER', 0),
+                                                 ('BASKETBALL', 1),
+                                                 ('TENNIS', 2),
+                                                 ('SWIMMING', 3),
+                                                 ('RUNNING', 4),
+                                                 ('CYCLING', 5),
+                                                 ('GOLF', 6),
+                                                 ('BASEBALL', 7),
+                                                 ('MARTIAL_ARTS', 8),
+                                                 ('YOGA', 9),
+                                                 ('SNOWBOARDING', 10),
+                                                 ('CLIMBING', 11),
+                                                 ('MUSIC', 12),
+                                                 ('ARTS', 13),
+                                                 ('TECH', 14),
+                                                 ('EDUCATION', 15),
+                                                 ('OUTDOORS', 16),
+                                                 ('FOOD', 17),
+                                                 ('SOCIAL', 18),
+                                                 ('WELLNESS', 19),
+                                                 ('NETWORKING', 20),
+                                                 ('GAMING', 21),
+                                                 ('TRAVEL', 22),
+                                                 ('VOLUNTEERING', 23),
+                                                 ('SHOPPING', 24),
+                                                 ('READING', 25),
+                                                 ('WRITING', 26),
+                                                 ('PHOTOGRAPHY', 27),
+                                                 ('GARDENING', 28),
+                                                 ('COOKING', 29),
+                                                 ('BAKING', 30),
+                                                 ('FASHION', 31),
+                                                 ('FILM', 32),
+                                                 ('FITNESS', 33),
+                                                 ('MEDITATION', 34),
+                                                 ('FISHING', 35),
+                                                 ('HIKING', 36),
+                                                 ('BOARD_GAMES', 37),
+                                                 ('DANCING', 38),
+                                                 ('LANGUAGE_LEARNING', 39),
+                                                 ('PAINTING', 40)),
+     user_masks AS (SELECT p.user_id, bit_or(1::BIGINT << b.bit_position) AS activity_mask
+                    FROM preferences p
+                             JOIN activity_bits b ON b.activity_type = p.activity_type
+                    GROUP BY p.user_id)
+UPDATE users u
+SET activity_mask = m.activity_mask
+FROM user_masks m
+WHERE m.user_id = u.id;
@@ -0,0 +1,14 @@
+CREATE TABLE outbox_messages
+(
+    id                 UUID PRIMARY KEY,
+    destination        VARCHAR(255) NOT NULL,
+    payload            TEXT NOT NULL,
+    sent_date          TIMESTAMP,
+    attempts           INTEGER NOT NULL DEFAULT 0,
+    last_error         VARCHAR(1024),
+    created_date       TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    last_modified_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_outbox_messages_pending ON outbox_messages (created_date) WHERE sent_date IS NULL;
+CREATE INDEX idx_outbox_messages_sent_date ON outbox_messages (sent_date) WHERE sent_date IS NOT NULL;
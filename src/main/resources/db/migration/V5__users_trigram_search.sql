@@ -0,0 +1,8 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE users
+    ADD COLUMN search_text TEXT GENERATED ALWAYS AS (
+        username::TEXT || ' ' || coalesce(first_name, '') || ' ' || coalesce(last_name, '') || ' ' || coalesce(city, '')
+        ) STORED;
+
+CREATE INDEX idx_users_search_text_trgm ON users USING GIN (search_text gin_trgm_ops);
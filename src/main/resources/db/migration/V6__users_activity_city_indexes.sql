@@ -0,0 +1,3 @@
+CREATE INDEX idx_preferences_activity_type_user_id ON preferences (activity_type, user_id);
+
+CREATE INDEX idx_users_lower_city_id ON users (lower(city), id);
@@ -0,0 +1,5 @@
+-- Users whose preference rows do not follow activity_mask because they were written in bitmask storage mode.
+ALTER TABLE users
+    ADD COLUMN preferences_stale BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE INDEX idx_users_preferences_stale ON users (id) WHERE preferences_stale;
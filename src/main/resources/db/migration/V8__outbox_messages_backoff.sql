@@ -0,0 +1,7 @@
+ALTER TABLE outbox_messages
+    ADD COLUMN next_attempt_at TIMESTAMP,
+    ADD COLUMN dead_date       TIMESTAMP;
+
+-- Messages that ran out of attempts are parked for inspection and no longer claimed.
+DROP INDEX idx_outbox_messages_pending;
+CREATE INDEX idx_outbox_messages_pending ON outbox_messages (created_date) WHERE sent_date IS NULL AND dead_date IS NULL;
@@ -0,0 +1,199 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.entities.Preferences;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.response.ExportedUser;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.whatstheplan.users.model.ActivityType.HIKING;
+import static com.whatstheplan.users.model.ActivityType.SOCCER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.answersWithDelay;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Without change notifications no other thread calls the repository spy while a test stubs it.
+@TestPropertySource(properties = {
+        "users.export.page-size=10",
+        "users.export.timeout=1m",
+        "spring.mvc.async.request-timeout=200ms",
+        "users.cache.invalidation.enabled=false"
+})
+class AdminUsersExportIntegrationTest extends BaseIntegrationTest {
+
+    // UUID.compareTo compares signed longs, Postgres compares unsigned bytes like their text form.
+    private static final Comparator<UUID> POSTGRES_UUID_ORDER = Comparator.comparing(UUID::toString);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoSpyBean
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reset(usersRepository);
+    }
+
+    @Test
+    void whenExportingAsNdjson_thenEveryUserShouldBeStreamedOnceInIdOrder() throws Exception {
+        //given
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            ids.add(saveUser("user_" + i, "Madrid", HIKING, SOCCER).getId());
+        }
+        ids.sort(POSTGRES_UUID_ORDER);
+
+        // when
+        List<ExportedUser> exported = exportNdjson("");
+
+        // then
+        assertThat(exported).extracting(ExportedUser::getId).containsExactlyElementsOf(ids);
+        assertThat(exported.get(0).getPreferences()).containsExactly("Soccer", "Hiking");
+        assertThat(exported.get(0).getCreatedDate()).isNotNull();
+    }
+
+    @Test
+    void whenTheExportOutlastsTheAsyncRequestTimeout_thenEveryPageShouldStillBeStreamed() throws Exception {
+        //given
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            ids.add(saveUser("user_" + i, "Madrid", HIKING).getId());
+        }
+        ids.sort(POSTGRES_UUID_ORDER);
+        // The spy wraps a JDK proxy, so its default answer is what reaches the real repository.
+        doAnswer(answersWithDelay(150, mockingDetails(usersRepository).getMockCreationSettings().getDefaultAnswer()))
+                .when(usersRepository).findExportPage(any(), anyInt());
+
+        // when
+        List<ExportedUser> exported = exportNdjson("");
+
+        // then
+        assertThat(exported).extracting(ExportedUser::getId).containsExactlyElementsOf(ids);
+        verify(usersRepository, times(3)).findExportPage(any(), anyInt());
+    }
+
+    @Test
+    void whenResumingAfterAUser_thenOnlyLaterUsersShouldBeStreamed() throws Exception {
+        //given
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            ids.add(saveUser("user_" + i, "Madrid", HIKING).getId());
+        }
+        ids.sort(POSTGRES_UUID_ORDER);
+
+        // when
+        List<ExportedUser> exported = exportNdjson("?after=" + ids.get(4));
+
+        // then
+        assertThat(exported).extracting(ExportedUser::getId).containsExactlyElementsOf(ids.subList(5, ids.size()));
+    }
+
+    @Test
+    void whenExportingAsCsv_thenFieldsShouldBeEscaped() throws Exception {
+        //given
+        User user = saveUser("csv_user", "Washington, \"D.C.\"", HIKING, SOCCER);
+
+        // when
+        MvcResult result = perform(get("/admin/users/export").accept("text/csv"));
+
+        // then
+        assertThat(result.getResponse().getContentType()).startsWith("text/csv");
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).isEqualTo(
+                "id,username,email,first_name,last_name,city,preferences,created_date,last_modified_date");
+        assertThat(lines[1]).startsWith(user.getId()
+                + ",csv_user,csv_user@test.com,firstName,lastName,\"Washington, \"\"D.C.\"\"\",Soccer|Hiking,");
+    }
+
+    @Test
+    void whenCallerIsNotAnAdmin_thenExportShouldBeForbidden() throws Exception {
+        mockMvc.perform(get("/admin/users/export")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_user"))))
+                .andExpect(status().isForbidden());
+    }
+
+    private List<ExportedUser> exportNdjson(String query) throws Exception {
+        MvcResult result = perform(get("/admin/users/export" + query).accept(APPLICATION_NDJSON));
+        List<ExportedUser> exported = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            if (!line.isBlank()) {
+                exported.add(objectMapper.readValue(line, ExportedUser.class));
+            }
+        }
+        return exported;
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult started = mockMvc.perform(requestBuilder
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_admin"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private User saveUser(String username, String city, ActivityType... activityTypes) {
+        Set<ActivityType> activities = EnumSet.noneOf(ActivityType.class);
+        activities.addAll(List.of(activityTypes));
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .email(username + "@test.com")
+                .username(username)
+                .firstName("firstName")
+                .lastName("lastName")
+                .city(city)
+                .activities(activities)
+                .build();
+        user.setPreferences(activities.stream()
+                .map(activityType -> new Preferences(null, activityType, user))
+                .toList());
+        return usersRepository.save(user);
+    }
+}
@@ -0,0 +1,231 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.response.ErrorResponse;
+import com.whatstheplan.users.model.response.UserImportIssue;
+import com.whatstheplan.users.model.response.UserImportResponse;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static com.whatstheplan.users.model.ActivityType.HIKING;
+import static com.whatstheplan.users.model.ActivityType.SOCCER;
+import static com.whatstheplan.users.services.EmailService.WELCOME_EMAIL_BINDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "users.import.max-size=4KB")
+class AdminUsersImportIntegrationTest extends BaseIntegrationTest {
+
+    private static final String CSV_HEADER =
+            "id,username,email,first_name,last_name,city,preferences,created_date,last_modified_date";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+    }
+
+    @Test
+    void whenImportingNdjson_thenValidRowsShouldBeCreatedAndTheRestReported() throws Exception {
+        //given
+        usersRepository.save(User.builder()
+                .id(UUID.randomUUID())
+                .email("existing@test.com")
+                .username("existing")
+                .activities(EnumSet.noneOf(ActivityType.class))
+                .preferences(List.of())
+                .build());
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        String body = String.join("\n",
+                row(first, "first_user", "first@test.com", "Madrid", "Hiking", "Soccer"),
+                row(UUID.randomUUID(), "x", "invalid@test.com", "Madrid"),
+                "{not json",
+                row(second, "second_user", "second@test.com", "Sevilla"),
+                row(UUID.randomUUID(), "repeated", "first@test.com", "Madrid"),
+                row(UUID.randomUUID(), "EXISTING", "other@test.com", "Madrid"),
+                row(UUID.randomUUID(), "skydiver", "skydiver@test.com", "Madrid", "Skydiving"),
+                row(third, "third_user", "third@test.com", "Madrid", "Soccer"));
+
+        // when
+        UserImportResponse response = importUsers(body, APPLICATION_NDJSON.toString());
+
+        // then
+        assertThat(response.getReceived()).isEqualTo(8);
+        assertThat(response.getImported()).isEqualTo(3);
+        assertThat(response.getRejected()).isEqualTo(5);
+        assertThat(response.getIssues())
+                .extracting(UserImportIssue::getRow, UserImportIssue::getReason)
+                .containsExactly(
+                        tuple(2L, "Username must be 3-15 characters long and can only include letters, numbers, dots, underscores, and hyphens."),
+                        tuple(3L, "Malformed row."),
+                        tuple(5L, "Id, username or email repeated from an earlier row."),
+                        tuple(6L, "Username is already taken."),
+                        tuple(7L, "Unknown preference: Skydiving."));
+
+        User imported = usersRepository.findById(first).orElseThrow();
+        assertThat(imported.getUsername()).isEqualTo("first_user");
+        assertThat(imported.getActivities()).containsExactlyInAnyOrder(HIKING, SOCCER);
+        assertThat(preferencesRepository.findActivityTypesByUserId(first)).containsExactlyInAnyOrder(HIKING, SOCCER);
+        assertThat(usersRepository.existsById(second)).isTrue();
+        assertThat(usersRepository.existsById(third)).isTrue();
+
+        List<String> welcomed = new ArrayList<>();
+        for (String payload : jdbcTemplate.queryForList(
+                "SELECT payload FROM users.outbox_messages WHERE destination = ?", String.class, WELCOME_EMAIL_BINDING)) {
+            welcomed.add(objectMapper.readTree(payload).get("email").asText());
+        }
+        assertThat(welcomed).contains("first@test.com", "second@test.com", "third@test.com")
+                .doesNotContain("invalid@test.com", "other@test.com", "skydiver@test.com");
+    }
+
+    @Test
+    void whenAnNdjsonLineIsNull_thenItShouldBeReportedAsMalformed() throws Exception {
+        //given
+        UUID userId = UUID.randomUUID();
+        String body = "null\n" + row(userId, "after_null", "after_null@test.com", "Madrid");
+
+        // when
+        UserImportResponse response = importUsers(body, APPLICATION_NDJSON.toString());
+
+        // then
+        assertThat(response.getReceived()).isEqualTo(2);
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getIssues())
+                .extracting(UserImportIssue::getRow, UserImportIssue::getReason)
+                .containsExactly(tuple(1L, "Malformed row."));
+        assertThat(usersRepository.existsById(userId)).isTrue();
+    }
+
+    @Test
+    void whenTheBodyIsTooLarge_thenShouldReturnErrorWithoutImporting() throws Exception {
+        //given
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; body.length() <= 4096; i++) {
+            body.append(row(UUID.randomUUID(), "user_" + i, "user_" + i + "@test.com", "Madrid")).append('\n');
+        }
+
+        // when
+        MvcResult result = mockMvc.perform(post("/admin/users/import")
+                        .with(adminJwt())
+                        .contentType(APPLICATION_NDJSON)
+                        .content(body.toString()))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        // then
+        ErrorResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponse.class);
+        assertThat(response.getReason()).isEqualTo("Import body must not exceed 4096 bytes.");
+        assertThat(usersRepository.count()).isZero();
+    }
+
+    @Test
+    void whenImportingCsv_thenQuotedFieldsAndPreferencesShouldBeRead() throws Exception {
+        //given
+        UUID userId = UUID.randomUUID();
+        String body = CSV_HEADER + "\n"
+                + userId + ",csv_user,csv_user@test.com,First,\"Last, \"\"Jr\"\"\",Madrid,Hiking|Soccer,,\n"
+                + "not-a-uuid,broken,broken@test.com,First,Last,Madrid,,,\n";
+
+        // when
+        UserImportResponse response = importUsers(body, "text/csv");
+
+        // then
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getIssues())
+                .extracting(UserImportIssue::getRow, UserImportIssue::getReason)
+                .containsExactly(tuple(2L, "Malformed row."));
+        User imported = usersRepository.findById(userId).orElseThrow();
+        assertThat(imported.getLastName()).isEqualTo("Last, \"Jr\"");
+        assertThat(imported.getActivities()).containsExactlyInAnyOrder(HIKING, SOCCER);
+    }
+
+    @Test
+    void whenTheCsvHeaderIsMissingColumns_thenShouldReturnError() throws Exception {
+        // when
+        MvcResult result = mockMvc.perform(post("/admin/users/import")
+                        .with(adminJwt())
+                        .contentType("text/csv")
+                        .content("id,username\n" + UUID.randomUUID() + ",someone\n"))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        // then
+        ErrorResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponse.class);
+        assertThat(response.getReason()).startsWith("CSV header must contain the columns");
+        assertThat(usersRepository.count()).isZero();
+    }
+
+    @Test
+    void whenCallerIsNotAnAdmin_thenImportShouldBeForbidden() throws Exception {
+        mockMvc.perform(post("/admin/users/import")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_user")))
+                        .contentType(APPLICATION_NDJSON)
+                        .content(row(UUID.randomUUID(), "intruder", "intruder@test.com", "Madrid")))
+                .andExpect(status().isForbidden());
+    }
+
+    private UserImportResponse importUsers(String body, String contentType) throws Exception {
+        MvcResult result = mockMvc.perform(post("/admin/users/import")
+                        .with(adminJwt())
+                        .contentType(contentType)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), UserImportResponse.class);
+    }
+
+    private String row(UUID id, String username, String email, String city, String... preferences) throws Exception {
+        JsonNode row = objectMapper.createObjectNode()
+                .put("id", id.toString())
+                .put("username", username)
+                .put("email", email)
+                .put("firstName", "firstName")
+                .put("lastName", "lastName")
+                .put("city", city)
+                .set("preferences", objectMapper.valueToTree(List.of(preferences)));
+        return objectMapper.writeValueAsString(row);
+    }
+
+    private static RequestPostProcessor adminJwt() {
+        return jwt().authorities(new SimpleGrantedAuthority("ROLE_admin"));
+    }
+}
@@ -0,0 +1,138 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.request.BasicUsersBatchRequest;
+import com.whatstheplan.users.model.response.BasicUsersBatchResponse;
+import com.whatstheplan.users.model.response.ErrorResponse;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
+
+class BasicUsersInfoBatchRetrievalControllerIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+    }
+
+    @Test
+    void whenAUserGetsBatchData_thenShouldReturnFoundUsersKeyedByIdAndMissingIds() throws Exception {
+        //given
+        List<User> users = IntStream.range(0, 3)
+                .<User>mapToObj(i -> User.builder()
+                        .id(UUID.randomUUID())
+                        .email("test" + i + "@test.com")
+                        .username("username" + i)
+                        .firstName("firstName")
+                        .lastName("lastName")
+                        .city("city")
+                        .build())
+                .toList();
+        usersRepository.saveAll(users);
+
+        UUID missingId = UUID.randomUUID();
+        BasicUsersBatchRequest request = BasicUsersBatchRequest.builder()
+                .userIds(List.of(users.get(0).getId(), missingId, users.get(1).getId(), users.get(2).getId()))
+                .build();
+
+        // when
+        MvcResult result = mockMvc.perform(post("/users-info/batch")
+                        .with(jwt())
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // then
+        BasicUsersBatchResponse response = objectMapper.readValue(result.getResponse().getContentAsString(),
+                BasicUsersBatchResponse.class);
+
+        assertThat(response.getUsers()).hasSize(3);
+        users.forEach(user -> {
+            assertThat(response.getUsers().get(user.getId()).getUsername()).isEqualTo(user.getUsername());
+            assertThat(response.getUsers().get(user.getId()).getEmail()).isEqualTo(user.getEmail());
+        });
+        assertThat(response.getMissing()).containsExactly(missingId);
+    }
+
+    @Test
+    void whenAUserGetsBatchDataWithTooManyIds_thenShouldReturnBadRequest() throws Exception {
+        //given
+        BasicUsersBatchRequest request = BasicUsersBatchRequest.builder()
+                .userIds(Collections.nCopies(BasicUsersBatchRequest.MAX_BATCH_SIZE + 1, UUID.randomUUID()))
+                .build();
+
+        // when
+        MvcResult result = mockMvc.perform(post("/users-info/batch")
+                        .with(jwt())
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        // then
+        ErrorResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponse.class);
+        assertThat(response.getReason()).isEqualTo("No more than 1000 user ids can be requested at once.");
+    }
+
+    @Test
+    void whenAUserGetsBatchDataWithoutIds_thenShouldReturnBadRequest() throws Exception {
+        //given
+        BasicUsersBatchRequest request = BasicUsersBatchRequest.builder()
+                .userIds(List.of())
+                .build();
+
+        // when
+        MvcResult result = mockMvc.perform(post("/users-info/batch")
+                        .with(jwt())
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        // then
+        ErrorResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponse.class);
+        assertThat(response.getReason()).isEqualTo("User ids are mandatory.");
+    }
+
+    @Test
+    void whenAUserGetsBatchDataWithMissingToken_thenWillReturnUnauthorized() throws Exception {
+        // given - when - then
+        mockMvc.perform(post("/users-info/batch")
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(BasicUsersBatchRequest.builder()
+                                .userIds(List.of(UUID.randomUUID()))
+                                .build())))
+                .andExpect(status().isUnauthorized());
+    }
+}
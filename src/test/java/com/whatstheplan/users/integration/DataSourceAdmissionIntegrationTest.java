@@ -0,0 +1,98 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.config.AdmissionControlledDataSource;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.response.ErrorResponse;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "users.datasource.admission.enabled=true",
+        "users.datasource.admission.max-concurrent=2",
+        "users.datasource.admission.acquire-timeout=200ms",
+        "users.cache.invalidation.enabled=false",
+        "users.outbox.relay.enabled=false"
+})
+class DataSourceAdmissionIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+    }
+
+    @Test
+    void whenNoConnectionIsAdmittedInTime_thenShouldReturnServiceUnavailableAndRecover() throws Exception {
+        //given
+        UUID userId = UUID.randomUUID();
+        usersRepository.save(User.builder()
+                .id(userId)
+                .email("test@test.com")
+                .username("username")
+                .firstName("firstName")
+                .lastName("lastName")
+                .city("city")
+                .build());
+        assertThat(dataSource).isInstanceOf(AdmissionControlledDataSource.class);
+        double rejections = meterRegistry.counter("users.datasource.admission.rejections").count();
+
+        try (Connection ignored = dataSource.getConnection();
+             Connection alsoIgnored = dataSource.getConnection()) {
+            // when
+            MvcResult result = mockMvc.perform(get("/users-info/" + userId)
+                            .with(jwt()))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andReturn();
+
+            // then
+            ErrorResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponse.class);
+            assertThat(response.getReason()).isEqualTo("Service temporarily unavailable.");
+            assertThat(meterRegistry.counter("users.datasource.admission.rejections").count())
+                    .isEqualTo(rejections + 1);
+        }
+
+        // when
+        mockMvc.perform(get("/users-info/" + userId)
+                        .with(jwt()))
+                // then
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,104 @@
+package com.whatstheplan.users.integration;
+
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import com.whatstheplan.users.testconfig.security.StandInIssuer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+import static com.whatstheplan.users.config.CachingJwtAuthenticationManager.CACHE_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class JwtAuthenticationCacheIntegrationTest extends BaseIntegrationTest {
+
+    private static final StandInIssuer ISSUER = startIssuer();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void issuerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.security.oauth2.resourceserver.jwt.issuer-uri", ISSUER::getIssuerUri);
+    }
+
+    @AfterAll
+    static void stopIssuer() {
+        ISSUER.close();
+    }
+
+    @Test
+    void whenTheApplicationHasStarted_thenTheSigningKeysShouldAlreadyBeFetched() {
+        // then
+        assertThat(ISSUER.getJwksRequests()).isPositive();
+    }
+
+    @Test
+    void whenATokenIsReused_thenItShouldOnlyBeVerifiedTheFirstTime() throws Exception {
+        //given
+        String token = ISSUER.mint(UUID.randomUUID(), "cached@test.com");
+        long verified = verifications("verified");
+        double hits = cacheHits();
+
+        // when
+        checkAvailability(token, status().isOk());
+        checkAvailability(token, status().isOk());
+        checkAvailability(token, status().isOk());
+
+        // then
+        assertThat(verifications("verified") - verified).isEqualTo(1);
+        assertThat(cacheHits() - hits).isEqualTo(2);
+    }
+
+    @Test
+    void whenATokenIsTampered_thenItShouldBeRejectedEveryTime() throws Exception {
+        //given
+        String token = ISSUER.mint(UUID.randomUUID(), "tampered@test.com");
+        String tampered = token.substring(0, token.length() - 4) + "AAAA";
+        long rejected = verifications("rejected");
+
+        // when
+        checkAvailability(tampered, status().isUnauthorized());
+        checkAvailability(tampered, status().isUnauthorized());
+
+        // then
+        assertThat(verifications("rejected") - rejected).isEqualTo(2);
+    }
+
+    private void checkAvailability(String token, ResultMatcher expectedStatus) throws Exception {
+        mockMvc.perform(get("/users-info/availability")
+                        .param("username", "someone")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(expectedStatus);
+    }
+
+    private long verifications(String outcome) {
+        return meterRegistry.get("users.security.jwt.verification").tag("outcome", outcome).timer().count();
+    }
+
+    private double cacheHits() {
+        return meterRegistry.get("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit")
+                .functionCounter().count();
+    }
+
+    private static StandInIssuer startIssuer() {
+        try {
+            return new StandInIssuer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
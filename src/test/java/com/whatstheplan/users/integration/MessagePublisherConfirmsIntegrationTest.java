@@ -0,0 +1,127 @@
+package com.whatstheplan.users.integration;
+
+import com.whatstheplan.users.services.MessagePublisher;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static com.whatstheplan.users.services.EmailService.WELCOME_EMAIL_BINDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+/**
+ * The test binder never confirms, so the broker's answer is played by completing the correlation of each message.
+ */
+@Import(TestChannelBinderConfiguration.class)
+@TestPropertySource(properties = {
+        "users.outbox.relay.enabled=false",
+        "users.publisher.confirms=true",
+        "users.publisher.confirm-timeout=500ms"
+})
+class MessagePublisherConfirmsIntegrationTest extends BaseIntegrationTest {
+
+    private static final byte[] PAYLOAD = "{\"username\":\"user\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private MessagePublisher messagePublisher;
+
+    @Autowired
+    private CircuitBreaker brokerCircuitBreaker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoSpyBean
+    private StreamBridge streamBridge;
+
+    @BeforeEach
+    void setUp() {
+        brokerCircuitBreaker.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reset(streamBridge);
+        brokerCircuitBreaker.reset();
+    }
+
+    @Test
+    void whenTheBrokerConfirms_thenThePublishShouldSucceed() throws Exception {
+        //given
+        answerWith(new CorrelationData.Confirm(true, null));
+
+        // when
+        CompletableFuture<Void> result = messagePublisher.publish(WELCOME_EMAIL_BINDING, PAYLOAD);
+
+        // then
+        result.get();
+        assertThat(brokerCircuitBreaker.getMetrics().getNumberOfSuccessfulCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void whenTheBrokerRejects_thenThePublishShouldFailWithTheReason() {
+        //given
+        answerWith(new CorrelationData.Confirm(false, "queue limit reached"));
+        double failures = failures();
+
+        // when
+        CompletableFuture<Void> result = messagePublisher.publish(WELCOME_EMAIL_BINDING, PAYLOAD);
+
+        // then
+        assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("Broker rejected the message: queue limit reached");
+        assertThat(failures()).isEqualTo(failures + 1);
+        assertThat(brokerCircuitBreaker.getMetrics().getNumberOfFailedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void whenTheBrokerNeverConfirms_thenThePublishShouldFailOnceTheConfirmTimeoutIsUp() {
+        //given
+        double failures = failures();
+
+        // when
+        long start = System.nanoTime();
+        CompletableFuture<Void> result = messagePublisher.publish(WELCOME_EMAIL_BINDING, PAYLOAD);
+
+        // then
+        assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("No publisher confirm within PT0.5S");
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(500_000_000L);
+        assertThat(failures()).isEqualTo(failures + 1);
+    }
+
+    private void answerWith(CorrelationData.Confirm confirm) {
+        doAnswer(invocation -> {
+            Message<?> message = invocation.getArgument(1);
+            boolean sent = (boolean) invocation.callRealMethod();
+            message.getHeaders().get(AmqpHeaders.PUBLISH_CONFIRM_CORRELATION, CorrelationData.class)
+                    .getFuture()
+                    .complete(confirm);
+            return sent;
+        }).when(streamBridge).send(anyString(), any(Message.class));
+    }
+
+    private double failures() {
+        return meterRegistry.counter("users.publisher.failures").count();
+    }
+}
@@ -0,0 +1,155 @@
+package com.whatstheplan.users.integration;
+
+import com.whatstheplan.users.exceptions.PublisherQueueFullException;
+import com.whatstheplan.users.services.MessagePublisher;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.Message;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static com.whatstheplan.users.services.EmailService.WELCOME_EMAIL_BINDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+
+@Import(TestChannelBinderConfiguration.class)
+@TestPropertySource(properties = {
+        "users.outbox.relay.enabled=false",
+        "users.publisher.queue-capacity=2",
+        "users.publisher.circuit-breaker.sliding-window-size=4",
+        "users.publisher.circuit-breaker.wait-duration-in-open-state=1h"
+})
+class MessagePublisherIntegrationTest extends BaseIntegrationTest {
+
+    private static final byte[] PAYLOAD = "{\"username\":\"user\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private MessagePublisher messagePublisher;
+
+    @Autowired
+    private CircuitBreaker brokerCircuitBreaker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoSpyBean
+    private StreamBridge streamBridge;
+
+    @Autowired
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    private OutputDestination output;
+
+    @BeforeEach
+    void setUp() {
+        brokerCircuitBreaker.reset();
+        output.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reset(streamBridge);
+        brokerCircuitBreaker.reset();
+    }
+
+    @Test
+    void whenAMessageIsPublished_thenItShouldBeSentFromTheSenderThread() throws Exception {
+        //given
+        List<String> senderThreads = new ArrayList<>();
+        doAnswer(invocation -> {
+            senderThreads.add(Thread.currentThread().getName());
+            return invocation.callRealMethod();
+        }).when(streamBridge).send(anyString(), any(Message.class));
+
+        // when
+        messagePublisher.publish(WELCOME_EMAIL_BINDING, PAYLOAD).get();
+
+        // then
+        Message<byte[]> sent = output.receive(1000L, "mail");
+        assertThat(sent).isNotNull();
+        assertThat(sent.getPayload()).isEqualTo(PAYLOAD);
+        assertThat(senderThreads).containsExactly("message-publisher");
+        assertThat(meterRegistry.timer("users.publisher.publish.latency").count()).isPositive();
+    }
+
+    @Test
+    void whenTheBrokerKeepsFailing_thenTheCircuitShouldOpenAndRejectWithoutSending() {
+        //given
+        doThrow(new IllegalStateException("broker down")).when(streamBridge).send(anyString(), any(Message.class));
+        double droppedBefore = dropped("circuit_open");
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            CompletableFuture<Void> result = messagePublisher.publish(WELCOME_EMAIL_BINDING, PAYLOAD);
+            assertThatThrownBy(result::get).isInstanceOf(ExecutionException.class)
+                    .hasRootCauseMessage("broker down");
+        }
+        CompletableFuture<Void> rejected = messagePublisher.publish(WELCOME_EMAIL_BINDING, PAYLOAD);
+
+        // then
+        assertThat(brokerCircuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::get).hasCauseInstanceOf(CallNotPermittedException.class);
+        assertThat(dropped("circuit_open")).isEqualTo(droppedBefore + 1);
+    }
+
+    @Test
+    void whenTheQueueIsFull_thenPublishShouldFailFastInsteadOfBlocking() throws Exception {
+        //given
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await();
+            return invocation.callRealMethod();
+        }).when(streamBridge).send(anyString(), any(Message.class));
+        double droppedBefore = dropped("queue_full");
+
+        CompletableFuture<Void> inFlight = messagePublisher.publish(WELCOME_EMAIL_BINDING, PAYLOAD);
+        sending.await();
+        List<CompletableFuture<Void>> queued = List.of(
+                messagePublisher.publish(WELCOME_EMAIL_BINDING, PAYLOAD),
+                messagePublisher.publish(WELCOME_EMAIL_BINDING, PAYLOAD));
+
+        // when
+        CompletableFuture<Void> overflow = messagePublisher.publish(WELCOME_EMAIL_BINDING, PAYLOAD);
+
+        // then
+        assertThat(overflow).isCompletedExceptionally();
+        assertThatThrownBy(overflow::get).hasCauseInstanceOf(PublisherQueueFullException.class);
+        assertThat(dropped("queue_full")).isEqualTo(droppedBefore + 1);
+
+        release.countDown();
+        inFlight.get();
+        CompletableFuture.allOf(queued.toArray(CompletableFuture[]::new)).get();
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> meterRegistry.get("users.publisher.queue.depth").gauge().value() == 0);
+    }
+
+    private double dropped(String reason) {
+        return meterRegistry.counter("users.publisher.dropped", "reason", reason).count();
+    }
+}
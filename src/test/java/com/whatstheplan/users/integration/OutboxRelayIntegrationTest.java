@@ -0,0 +1,185 @@
+package com.whatstheplan.users.integration;
+
+import com.whatstheplan.users.model.entities.OutboxMessage;
+import com.whatstheplan.users.repository.OutboxMessagesRepository;
+import com.whatstheplan.users.services.MessagePublisher;
+import com.whatstheplan.users.services.OutboxRelay;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import com.whatstheplan.users.testconfig.jdbc.StatementCounter;
+import com.whatstheplan.users.testconfig.jdbc.StatementCounterConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+
+import static com.whatstheplan.users.services.EmailService.WELCOME_EMAIL_BINDING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+
+@Import({TestChannelBinderConfiguration.class, StatementCounterConfiguration.class})
+@TestPropertySource(properties = {
+        "users.outbox.relay.interval=1h",
+        "users.outbox.relay.initial-backoff=1m",
+        "users.outbox.relay.max-backoff=1h",
+        "users.outbox.relay.max-attempts=3",
+        "users.publisher.confirm-timeout=500ms"
+})
+class OutboxRelayIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxMessagesRepository outboxMessagesRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private MessagePublisher messagePublisher;
+
+    @BeforeEach
+    void setUp() {
+        outboxMessagesRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reset(messagePublisher);
+    }
+
+    @Test
+    void whenPublishingFails_thenMessagesShouldBackOffWithOneUpdatePerError() {
+        //given
+        OutboxMessage first = saveMessage("first", 0);
+        OutboxMessage second = saveMessage("second", 0);
+        OutboxMessage rejected = saveMessage("rejected", 1);
+        failPublishing("first", "broker down");
+        failPublishing("second", "broker down");
+        failPublishing("rejected", "Broker rejected the message");
+        statementCounter.reset();
+
+        // when
+        Instant relayed = Instant.now();
+        outboxRelay.relay();
+
+        // then
+        assertThat(statementCounter.updates("outbox_messages")).isEqualTo(2);
+        OutboxMessage firstFailed = outboxMessagesRepository.findById(first.getId()).orElseThrow();
+        assertThat(firstFailed.getAttempts()).isEqualTo(1);
+        assertThat(firstFailed.getLastError()).isEqualTo("broker down");
+        assertThat(firstFailed.getNextAttemptAt())
+                .isCloseTo(relayed.plus(Duration.ofMinutes(1)), within(5, ChronoUnit.SECONDS));
+        assertThat(firstFailed.getDeadDate()).isNull();
+        assertThat(outboxMessagesRepository.findById(second.getId()).orElseThrow().getLastError())
+                .isEqualTo("broker down");
+        OutboxMessage rejectedFailed = outboxMessagesRepository.findById(rejected.getId()).orElseThrow();
+        assertThat(rejectedFailed.getAttempts()).isEqualTo(2);
+        assertThat(rejectedFailed.getNextAttemptAt())
+                .isCloseTo(relayed.plus(Duration.ofMinutes(2)), within(5, ChronoUnit.SECONDS));
+
+        // when
+        clearInvocations(messagePublisher);
+        outboxRelay.relay();
+
+        // then
+        verify(messagePublisher, never()).publish(anyString(), any());
+    }
+
+    @Test
+    void whenAMessageRunsOutOfAttempts_thenItShouldBeParkedAsDead() {
+        //given
+        OutboxMessage failing = saveMessage("failing", 2);
+        failPublishing("failing", "broker down");
+
+        // when
+        outboxRelay.relay();
+
+        // then
+        OutboxMessage parked = outboxMessagesRepository.findById(failing.getId()).orElseThrow();
+        assertThat(parked.getAttempts()).isEqualTo(3);
+        assertThat(parked.getDeadDate()).isNotNull();
+        assertThat(parked.getSentDate()).isNull();
+
+        // when
+        jdbcTemplate.update("UPDATE users.outbox_messages SET next_attempt_at = NULL");
+        clearInvocations(messagePublisher);
+        outboxRelay.relay();
+
+        // then
+        verify(messagePublisher, never()).publish(anyString(), any());
+    }
+
+    @Test
+    void whenTheBackoffHasElapsed_thenTheMessageShouldBeRetried() {
+        //given
+        OutboxMessage retried = saveMessage("retried", 1);
+        jdbcTemplate.update("UPDATE users.outbox_messages SET next_attempt_at = created_date WHERE id = ?",
+                retried.getId());
+
+        // when
+        outboxRelay.relay();
+
+        // then
+        OutboxMessage sent = outboxMessagesRepository.findById(retried.getId()).orElseThrow();
+        assertThat(sent.getSentDate()).isNotNull();
+        assertThat(sent.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void whenThePublisherNeverAnswers_thenTheMessageShouldFailOnceThePublishTimeoutIsUp() {
+        //given
+        OutboxMessage unanswered = saveMessage("unanswered", 0);
+        doReturn(new CompletableFuture<Void>())
+                .when(messagePublisher)
+                .publish(WELCOME_EMAIL_BINDING, payload("unanswered").getBytes(StandardCharsets.UTF_8));
+
+        // when
+        outboxRelay.relay();
+
+        // then
+        OutboxMessage failed = outboxMessagesRepository.findById(unanswered.getId()).orElseThrow();
+        assertThat(failed.getSentDate()).isNull();
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).isEqualTo("Not published within PT5.5S");
+    }
+
+    private OutboxMessage saveMessage(String username, int attempts) {
+        return outboxMessagesRepository.save(OutboxMessage.builder()
+                .destination(WELCOME_EMAIL_BINDING)
+                .payload(payload(username))
+                .attempts(attempts)
+                .build());
+    }
+
+    private void failPublishing(String username, String error) {
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException(error)))
+                .when(messagePublisher)
+                .publish(WELCOME_EMAIL_BINDING, payload(username).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String payload(String username) {
+        return "{\"username\":\"" + username + "\"}";
+    }
+}
@@ -0,0 +1,210 @@
+package com.whatstheplan.users.integration;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.controller.BasicUsersInfoController;
+import com.whatstheplan.users.controller.UsersController;
+import com.whatstheplan.users.model.email.WelcomeEmail;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.request.UserProfileRequest;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.whatstheplan.users.config.RequestLogSamplingInterceptor.ENDPOINT_KEY;
+import static com.whatstheplan.users.testconfig.rabbit.RabbitUtils.poll;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
+
+@Import(TestChannelBinderConfiguration.class)
+class RequestLogSamplingIntegrationTest extends BaseIntegrationTest {
+
+    private static final String BASIC_INFO_ENDPOINT = "GET /users-info/{userId}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    private OutputDestination output;
+
+    private final ListAppender<ILoggingEvent> basicInfoLogs = new ListAppender<>();
+    private final ListAppender<ILoggingEvent> usersLogs = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+        attach(BasicUsersInfoController.class, basicInfoLogs);
+        attach(UsersController.class, usersLogs);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        detach(BasicUsersInfoController.class, basicInfoLogs);
+        detach(UsersController.class, usersLogs);
+        mockMvc.perform(delete("/actuator/logsampling")
+                        .param("endpoint", BASIC_INFO_ENDPOINT)
+                        .with(admin()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void whenAnEndpointIsNotSampled_thenItsInfoLinesShouldBeDropped() throws Exception {
+        //given
+        UUID userId = saveUser();
+        setRate(BASIC_INFO_ENDPOINT, 0);
+
+        // when
+        mockMvc.perform(get("/users-info/" + userId).with(jwt()))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(basicInfoLogs.list).isEmpty();
+    }
+
+    @Test
+    void whenAnEndpointIsFullySampled_thenItsInfoLinesShouldBeTaggedWithTheEndpoint() throws Exception {
+        //given
+        UUID userId = saveUser();
+        setRate(BASIC_INFO_ENDPOINT, 1);
+
+        // when
+        mockMvc.perform(get("/users-info/" + userId).with(jwt()))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(basicInfoLogs.list).hasSize(2);
+        assertThat(basicInfoLogs.list).allSatisfy(event -> {
+            assertThat(event.getLevel()).isEqualTo(Level.INFO);
+            assertThat(event.getMDCPropertyMap()).containsEntry(ENDPOINT_KEY, BASIC_INFO_ENDPOINT);
+        });
+    }
+
+    @Test
+    void whenARateIsChanged_thenItShouldBeReportedAndResettable() throws Exception {
+        //given
+        setRate(BASIC_INFO_ENDPOINT, 0.25);
+
+        // when
+        mockMvc.perform(get("/actuator/logsampling").with(admin()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.defaultRate").value(1.0))
+                .andExpect(jsonPath("$.rates['" + BASIC_INFO_ENDPOINT + "']").value(0.25));
+
+        // then
+        mockMvc.perform(delete("/actuator/logsampling")
+                        .param("endpoint", BASIC_INFO_ENDPOINT)
+                        .with(admin()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rates['" + BASIC_INFO_ENDPOINT + "']").value(0.1));
+    }
+
+    @Test
+    void whenANonAdminChangesARate_thenShouldBeForbidden() throws Exception {
+        mockMvc.perform(post("/actuator/logsampling")
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_user")))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(Map.of("endpoint", BASIC_INFO_ENDPOINT, "rate", 0))))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void whenAUserIsCreated_thenItsInfoLinesShouldNotContainThePayload() throws Exception {
+        //given
+        String email = "sampled@test.com";
+        UserProfileRequest request = UserProfileRequest.builder()
+                .username("sampled_user")
+                .firstName("Sampled")
+                .lastName("Person")
+                .city("Lisbon")
+                .preferences(List.of())
+                .build();
+
+        // when
+        mockMvc.perform(post("/users")
+                        .with(jwt()
+                                .jwt(jwt -> jwt
+                                        .claim("sub", UUID.randomUUID())
+                                        .claim("email", email))
+                                .authorities(new SimpleGrantedAuthority("ROLE_user")))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isCreated());
+
+        // then
+        WelcomeEmail welcomeEmail = poll(output, "mail", WelcomeEmail.class);
+        assertThat(welcomeEmail).isNotNull();
+        assertThat(usersLogs.list).isNotEmpty();
+        assertThat(usersLogs.list).extracting(ILoggingEvent::getFormattedMessage).allSatisfy(message -> assertThat(message)
+                .doesNotContain(email, request.getUsername(), request.getFirstName(), request.getLastName()));
+    }
+
+    private void setRate(String endpoint, double rate) throws Exception {
+        mockMvc.perform(post("/actuator/logsampling")
+                        .with(admin())
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(Map.of("endpoint", endpoint, "rate", rate))))
+                .andExpect(status().isOk());
+    }
+
+    private UUID saveUser() {
+        UUID userId = UUID.randomUUID();
+        usersRepository.save(User.builder()
+                .id(userId)
+                .email("basic@test.com")
+                .username("basic_user")
+                .firstName("firstName")
+                .lastName("lastName")
+                .city("city")
+                .build());
+        return userId;
+    }
+
+    private static RequestPostProcessor admin() {
+        return jwt().authorities(new SimpleGrantedAuthority("ROLE_admin"));
+    }
+
+    private static void attach(Class<?> loggerClass, ListAppender<ILoggingEvent> appender) {
+        appender.start();
+        ((Logger) LoggerFactory.getLogger(loggerClass)).addAppender(appender);
+    }
+
+    private static void detach(Class<?> loggerClass, ListAppender<ILoggingEvent> appender) {
+        ((Logger) LoggerFactory.getLogger(loggerClass)).detachAppender(appender);
+        appender.stop();
+    }
+}
@@ -0,0 +1,80 @@
+package com.whatstheplan.users.integration;
+
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Log lines go through an async appender, so each test waits for its last expected line before counting; the queue
+ * keeps them in order.
+ */
+@ExtendWith(OutputCaptureExtension.class)
+@TestPropertySource(properties = "users.errors.warn-interval=2s")
+class ThrottledWarningsIntegrationTest extends BaseIntegrationTest {
+
+    private static final String WARNING = "Request parameter type mismatch occurred";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void whenTheSameWarningRepeatsWithinTheInterval_thenItShouldBeLoggedOnceAndCountedAfterwards(
+            CapturedOutput output) throws Exception {
+        //given
+        requestUnknownActivity();
+        requestUnknownActivity();
+        requestUnknownActivity();
+        Thread.sleep(2_100);
+
+        // when
+        requestUnknownActivity();
+
+        // then
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> output.getOut().contains("(2 similar warnings suppressed)"));
+        assertThat(output.getOut().lines().filter(line -> line.contains(WARNING))).hasSize(2);
+    }
+
+    private void requestUnknownActivity() throws Exception {
+        mockMvc.perform(get("/users-info/by-activity?activities=SKYDIVING&city=Madrid")
+                        .with(jwt()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Nested
+    @TestPropertySource(properties = "users.errors.warn-interval=0")
+    class WithoutInterval {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Test
+        void whenTheIntervalIsZero_thenEveryWarningShouldBeLogged(CapturedOutput output) throws Exception {
+            // when
+            for (int i = 0; i < 3; i++) {
+                mockMvc.perform(get("/users-info/by-activity?activities=SKYDIVING&city=Madrid")
+                                .with(jwt()))
+                        .andExpect(status().isBadRequest());
+            }
+
+            // then
+            await().atMost(Duration.ofSeconds(5))
+                    .until(() -> output.getOut().lines().filter(line -> line.contains(WARNING)).count() == 3);
+            assertThat(output.getOut()).doesNotContain("similar warnings suppressed");
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.request.UserProfileRequest;
+import com.whatstheplan.users.model.response.UsernameSuggestionResponse;
+import com.whatstheplan.users.model.response.ErrorResponse;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.services.UsernameSearchService;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.whatstheplan.users.model.ActivityType.SOCCER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
+
+class UsernameSearchIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private UsernameSearchService usernameSearchService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+    }
+
+    @Test
+    void whenSearchingByPrefix_thenShouldReturnMatchingUsersInUsernameOrderIgnoringCase() throws Exception {
+        //given
+        User alice = saveUser("Alice");
+        User alicia = saveUser("alicia_g");
+        User ali = saveUser("ali");
+        saveUser("bob");
+        usernameSearchService.rebuild();
+
+        // when
+        List<UsernameSuggestionResponse> response = search("ALI", 10);
+
+        // then
+        assertThat(response)
+                .extracting(UsernameSuggestionResponse::getId)
+                .containsExactly(ali.getId(), alice.getId(), alicia.getId());
+        assertThat(response.get(1).getUsername()).isEqualTo("Alice");
+    }
+
+    @Test
+    void whenSearching_thenShouldNotExposeEmails() throws Exception {
+        //given
+        saveUser("private_user");
+        usernameSearchService.rebuild();
+
+        // when
+        MvcResult result = mockMvc.perform(get("/users-info/search")
+                        .param("prefix", "private")
+                        .with(jwt()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // then
+        assertThat(result.getResponse().getContentAsString())
+                .contains("private_user")
+                .doesNotContain("email", "private_user@test.com");
+    }
+
+    @Test
+    void whenSearchingWithALimit_thenShouldReturnAtMostThatManyUsers() throws Exception {
+        //given
+        for (int i = 0; i < 5; i++) {
+            saveUser("user_" + i);
+        }
+        usernameSearchService.rebuild();
+
+        // when
+        List<UsernameSuggestionResponse> response = search("user_", 3);
+
+        // then
+        assertThat(response)
+                .extracting(UsernameSuggestionResponse::getUsername)
+                .containsExactly("user_0", "user_1", "user_2");
+    }
+
+    @Test
+    void whenAUserIsRenamed_thenSearchShouldFindTheNewUsernameOnly() throws Exception {
+        //given
+        User user = saveUser("old_name");
+        usernameSearchService.rebuild();
+
+        UserProfileRequest request = UserProfileRequest.builder()
+                .username("new_name")
+                .firstName("firstName")
+                .lastName("lastName")
+                .city("city")
+                .preferences(List.of(SOCCER.getName()))
+                .build();
+
+        // when
+        mockMvc.perform(put("/users")
+                        .with(jwt()
+                                .jwt(jwt -> jwt
+                                        .claim("sub", user.getId())
+                                        .claim("email", user.getEmail()))
+                                .authorities(new SimpleGrantedAuthority("ROLE_user")))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(search("old", 10)).isEmpty();
+        assertThat(search("new", 10))
+                .extracting(UsernameSuggestionResponse::getId)
+                .containsExactly(user.getId());
+    }
+
+    @Test
+    void whenTheLimitIsOutOfRange_thenShouldReturnError() throws Exception {
+        // when
+        MvcResult result = mockMvc.perform(get("/users-info/search")
+                        .param("prefix", "user")
+                        .param("limit", "51")
+                        .with(jwt()))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        // then
+        ErrorResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponse.class);
+        assertThat(response.getReason()).isEqualTo("Limit must be at most 50.");
+    }
+
+    private List<UsernameSuggestionResponse> search(String prefix, int limit) throws Exception {
+        MvcResult result = mockMvc.perform(get("/users-info/search")
+                        .param("prefix", prefix)
+                        .param("limit", String.valueOf(limit))
+                        .with(jwt()))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), new TypeReference<>() {
+        });
+    }
+
+    private User saveUser(String username) {
+        return usersRepository.save(User.builder()
+                .id(UUID.randomUUID())
+                .email(username.toLowerCase() + "@test.com")
+                .username(username)
+                .firstName("firstName")
+                .lastName("lastName")
+                .city("city")
+                .build());
+    }
+}
@@ -0,0 +1,196 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.request.UserProfileRequest;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.services.ActivityIndexService;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static com.whatstheplan.users.model.ActivityType.CLIMBING;
+import static com.whatstheplan.users.model.ActivityType.HIKING;
+import static com.whatstheplan.users.model.ActivityType.SOCCER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_OCTET_STREAM;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
+
+class UsersActivityIndexIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private ActivityIndexService activityIndexService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+        activityIndexService.rebuild();
+    }
+
+    @Test
+    void whenUsersAreCreated_thenTheirIdsShouldBeStreamedByActivity() throws Exception {
+        //given
+        UUID hiker = createUser("hiker", "Madrid", HIKING);
+        UUID climber = createUser("climber", "Madrid", CLIMBING, HIKING);
+        UUID remoteHiker = createUser("remote_hiker", "Sevilla", HIKING);
+        createUser("soccer_player", "Madrid", SOCCER);
+
+        // when
+        List<UUID> anyActivity = streamNdjson("activities=HIKING,CLIMBING");
+        List<UUID> allActivities = streamNdjson("activities=HIKING,CLIMBING&match=ALL");
+        List<UUID> inMadrid = streamNdjson("activities=HIKING&city=madrid");
+
+        // then
+        assertThat(anyActivity).containsExactlyInAnyOrder(hiker, climber, remoteHiker);
+        assertThat(allActivities).containsExactly(climber);
+        assertThat(inMadrid).containsExactlyInAnyOrder(hiker, climber);
+    }
+
+    @Test
+    void whenAUserChangesActivities_thenTheIndexShouldBeUpdated() throws Exception {
+        //given
+        UUID userId = createUser("hiker", "Madrid", HIKING);
+
+        // when
+        mockMvc.perform(put("/users")
+                        .with(userJwt(userId, "hiker@test.com"))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(profileRequest("hiker", "Madrid", SOCCER))))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(streamNdjson("activities=HIKING")).isEmpty();
+        assertThat(streamNdjson("activities=SOCCER")).containsExactly(userId);
+    }
+
+    @Test
+    void whenRequestingBinary_thenIdsShouldBeStreamedAs16Bytes() throws Exception {
+        //given
+        List<UUID> hikers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            hikers.add(usersRepository.save(User.builder()
+                    .id(UUID.randomUUID())
+                    .email("hiker_" + i + "@test.com")
+                    .username("hiker_" + i)
+                    .city("Madrid")
+                    .activities(EnumSet.of(HIKING))
+                    .preferences(List.of())
+                    .build()).getId());
+        }
+        activityIndexService.rebuild();
+
+        // when
+        MvcResult started = mockMvc.perform(get("/admin/users/by-activity/ids?activities=HIKING")
+                        .accept(APPLICATION_OCTET_STREAM)
+                        .with(adminJwt()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "3"))
+                .andReturn();
+
+        // then
+        byte[] body = result.getResponse().getContentAsByteArray();
+        assertThat(body).hasSize(3 * 16);
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(body));
+        List<UUID> streamed = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            streamed.add(new UUID(input.readLong(), input.readLong()));
+        }
+        assertThat(streamed).containsExactlyInAnyOrderElementsOf(hikers);
+    }
+
+    @Test
+    void whenCallerIsNotAnAdmin_thenStreamingIdsShouldBeForbidden() throws Exception {
+        mockMvc.perform(get("/admin/users/by-activity/ids?activities=HIKING")
+                        .accept(APPLICATION_NDJSON)
+                        .with(jwt().authorities(new SimpleGrantedAuthority("ROLE_user"))))
+                .andExpect(status().isForbidden());
+    }
+
+    private List<UUID> streamNdjson(String query) throws Exception {
+        MvcResult started = mockMvc.perform(get("/admin/users/by-activity/ids?" + query)
+                        .accept(APPLICATION_NDJSON)
+                        .with(adminJwt()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+        List<UUID> streamed = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString().lines().toList()) {
+            streamed.add(UUID.fromString(objectMapper.readTree(line).get("id").asText()));
+        }
+        return streamed;
+    }
+
+    private UUID createUser(String username, String city, ActivityType... activityTypes) throws Exception {
+        UUID userId = UUID.randomUUID();
+        mockMvc.perform(post("/users")
+                        .with(userJwt(userId, username + "@test.com"))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(profileRequest(username, city, activityTypes))))
+                .andExpect(status().isCreated());
+        return userId;
+    }
+
+    private static UserProfileRequest profileRequest(String username, String city, ActivityType... activityTypes) {
+        return UserProfileRequest.builder()
+                .username(username)
+                .firstName("firstName")
+                .lastName("lastName")
+                .city(city)
+                .preferences(Arrays.stream(activityTypes).map(ActivityType::getName).toList())
+                .build();
+    }
+
+    private static RequestPostProcessor userJwt(UUID userId, String email) {
+        return jwt()
+                .jwt(jwt -> jwt
+                        .claim("sub", userId)
+                        .claim("email", email))
+                .authorities(new SimpleGrantedAuthority("ROLE_user"));
+    }
+
+    private static RequestPostProcessor adminJwt() {
+        return jwt().authorities(new SimpleGrantedAuthority("ROLE_admin"));
+    }
+}
@@ -0,0 +1,204 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.request.UserProfileRequest;
+import com.whatstheplan.users.model.response.AvailabilityResponse;
+import com.whatstheplan.users.model.response.ErrorResponse;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.services.AvailabilityService;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import com.whatstheplan.users.testconfig.jdbc.StatementCounter;
+import com.whatstheplan.users.testconfig.jdbc.StatementCounterConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.whatstheplan.users.model.ActivityType.SOCCER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
+
+@Import(StatementCounterConfiguration.class)
+class UsersAvailabilityIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+    }
+
+    @Test
+    void whenUsernameAndEmailAreTaken_thenShouldReportThemUnavailableIgnoringUsernameCase() throws Exception {
+        //given
+        saveUser("taken_name", "taken@test.com");
+        availabilityService.rebuild();
+
+        // when
+        AvailabilityResponse response = check("TAKEN_Name", "taken@test.com");
+
+        // then
+        assertThat(response.getUsernameAvailable()).isFalse();
+        assertThat(response.getEmailAvailable()).isFalse();
+    }
+
+    @Test
+    void whenUsernameIsFree_thenShouldAnswerFromMemoryWithoutQueryingUsers() throws Exception {
+        //given
+        saveUser("taken_name", "taken@test.com");
+        availabilityService.rebuild();
+        statementCounter.reset();
+
+        // when
+        MvcResult result = mockMvc.perform(get("/users-info/availability")
+                        .param("username", "free_name")
+                        .with(jwt()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // then
+        AvailabilityResponse response = objectMapper.readValue(result.getResponse().getContentAsString(),
+                AvailabilityResponse.class);
+        assertThat(response.getUsernameAvailable()).isTrue();
+        assertThat(response.getEmailAvailable()).isNull();
+        assertThat(statementCounter.selects("users")).isZero();
+    }
+
+    @Test
+    void whenAUserSignsUp_thenTheirUsernameShouldBecomeUnavailable() throws Exception {
+        //given
+        availabilityService.rebuild();
+        assertThat(check("new_user", "new_user@test.com").getUsernameAvailable()).isTrue();
+
+        UserProfileRequest request = UserProfileRequest.builder()
+                .username("new_user")
+                .firstName("firstName")
+                .lastName("lastName")
+                .city("city")
+                .preferences(List.of(SOCCER.getName()))
+                .build();
+
+        // when
+        mockMvc.perform(post("/users")
+                        .with(jwt()
+                                .jwt(jwt -> jwt
+                                        .claim("sub", UUID.randomUUID())
+                                        .claim("email", "new_user@test.com"))
+                                .authorities(new SimpleGrantedAuthority("ROLE_user")))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(status().isCreated());
+
+        // then
+        AvailabilityResponse response = check("new_user", "new_user@test.com");
+        assertThat(response.getUsernameAvailable()).isFalse();
+        assertThat(response.getEmailAvailable()).isFalse();
+    }
+
+    @Test
+    void whenRebuildsOverlap_thenEveryTakenUsernameShouldStillBeUnavailable() throws Exception {
+        //given
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            usernames.add("overlap_" + i);
+            saveUser("overlap_" + i, "overlap_" + i + "@test.com");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch ready = new CountDownLatch(4);
+
+        // when
+        try {
+            List<Future<?>> rebuilds = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                rebuilds.add(executor.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    for (int round = 0; round < 3; round++) {
+                        availabilityService.rebuild();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> rebuild : rebuilds) {
+                rebuild.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // then
+        assertThat(usernames)
+                .allSatisfy(username -> assertThat(availabilityService.check(username, null).getUsernameAvailable())
+                        .isFalse());
+    }
+
+    @Test
+    void whenNeitherUsernameNorEmailIsGiven_thenShouldReturnError() throws Exception {
+        // when
+        MvcResult result = mockMvc.perform(get("/users-info/availability")
+                        .with(jwt()))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        // then
+        ErrorResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponse.class);
+        assertThat(response.getReason()).isEqualTo("Username or email is mandatory.");
+    }
+
+    private AvailabilityResponse check(String username, String email) throws Exception {
+        MvcResult result = mockMvc.perform(get("/users-info/availability")
+                        .param("username", username)
+                        .param("email", email)
+                        .with(jwt()))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), AvailabilityResponse.class);
+    }
+
+    private void saveUser(String username, String email) {
+        usersRepository.save(User.builder()
+                .id(UUID.randomUUID())
+                .email(email)
+                .username(username)
+                .firstName("firstName")
+                .lastName("lastName")
+                .city("city")
+                .preferences(List.of())
+                .build());
+    }
+}
@@ -0,0 +1,213 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.entities.Preferences;
+import com.whatstheplan.users.model.request.UserProfileRequest;
+import com.whatstheplan.users.model.response.BasicUserResponse;
+import com.whatstheplan.users.model.response.BasicUsersPageResponse;
+import com.whatstheplan.users.model.response.UserResponse;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.services.PreferencesBackfillService;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.whatstheplan.users.model.ActivityType.BASEBALL;
+import static com.whatstheplan.users.model.ActivityType.COOKING;
+import static com.whatstheplan.users.model.ActivityType.PAINTING;
+import static com.whatstheplan.users.model.ActivityType.SOCCER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
+
+@Import(TestChannelBinderConfiguration.class)
+@TestPropertySource(properties = "users.preferences.storage=bitmask")
+class UsersBitmaskPreferencesIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PreferencesBackfillService preferencesBackfillService;
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+    }
+
+    @Test
+    void whenANewUserIsCreatedAndUpdated_thenPreferencesShouldOnlyBeStoredInTheUsersRow() throws Exception {
+        //given
+        UUID userId = UUID.randomUUID();
+        String email = "test@test.com";
+        List<String> preferences = List.of(SOCCER.getName(), BASEBALL.getName(), PAINTING.getName());
+        UserProfileRequest newUser = UserProfileRequest.builder()
+                .username("new_user")
+                .firstName("new")
+                .lastName("savedUser")
+                .city("city")
+                .preferences(preferences)
+                .build();
+
+        // when
+        MvcResult created = mockMvc.perform(post("/users")
+                        .with(userJwt(userId, email))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(newUser)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        // then
+        assertThat(objectMapper.readValue(created.getResponse().getContentAsString(), UserResponse.class)
+                .getPreferences()).containsExactlyInAnyOrderElementsOf(preferences);
+        assertThat(preferencesRepository.count()).isEqualTo(0);
+        assertThat(activityMask(userId)).isEqualTo(SOCCER.mask() | BASEBALL.mask() | PAINTING.mask());
+        assertThat(preferencesStale(userId)).isTrue();
+
+        // when
+        List<String> newPreferences = List.of(COOKING.getName());
+        mockMvc.perform(put("/users")
+                        .with(userJwt(userId, email))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(UserProfileRequest.builder()
+                                .username("new_user")
+                                .firstName("new")
+                                .lastName("savedUser")
+                                .city("city")
+                                .preferences(newPreferences)
+                                .build())))
+                .andExpect(status().isOk());
+
+        // then
+        MvcResult retrieved = mockMvc.perform(get("/users").with(userJwt(userId, email)))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(objectMapper.readValue(retrieved.getResponse().getContentAsString(), UserResponse.class)
+                .getPreferences()).containsExactlyElementsOf(newPreferences);
+        assertThat(preferencesRepository.count()).isEqualTo(0);
+        assertThat(activityMask(userId)).isEqualTo(COOKING.mask());
+    }
+
+    @Test
+    void whenSwitchingBackToTableStorage_thenPreferenceRowsShouldBeRestoredFromTheMask() throws Exception {
+        //given
+        UUID userId = UUID.randomUUID();
+        mockMvc.perform(post("/users")
+                        .with(userJwt(userId, "cook@test.com"))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(UserProfileRequest.builder()
+                                .username("cook")
+                                .firstName("new")
+                                .lastName("savedUser")
+                                .city("Madrid")
+                                .preferences(List.of(COOKING.getName(), SOCCER.getName()))
+                                .build())))
+                .andExpect(status().isCreated());
+        UUID untouchedId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users.users (id, username, email, activity_mask) VALUES (?, ?, ?, ?)",
+                untouchedId, "untouched", "untouched@test.com", PAINTING.mask());
+        jdbcTemplate.update("INSERT INTO users.preferences (id, activity_type, user_id) VALUES (?, ?, ?)",
+                UUID.randomUUID(), BASEBALL.name(), untouchedId);
+
+        // when
+        long restored = preferencesBackfillService.backfill();
+
+        // then
+        assertThat(restored).isEqualTo(1);
+        assertThat(preferencesStale(userId)).isFalse();
+        assertThat(preferencesRepository.findAll())
+                .extracting(preference -> preference.getUser().getId(), Preferences::getActivityType)
+                .containsExactlyInAnyOrder(
+                        tuple(userId, COOKING),
+                        tuple(userId, SOCCER),
+                        tuple(untouchedId, BASEBALL));
+        assertThat(preferencesBackfillService.backfill()).isZero();
+    }
+
+    @Test
+    void whenFindingUsersByActivityAndCity_thenShouldMatchOnTheActivityMask() throws Exception {
+        //given
+        UUID cookId = UUID.randomUUID();
+        mockMvc.perform(post("/users")
+                        .with(userJwt(cookId, "cook@test.com"))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(UserProfileRequest.builder()
+                                .username("cook")
+                                .firstName("new")
+                                .lastName("savedUser")
+                                .city("Madrid")
+                                .preferences(List.of(COOKING.getName(), SOCCER.getName()))
+                                .build())))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/users")
+                        .with(userJwt(UUID.randomUUID(), "painter@test.com"))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(UserProfileRequest.builder()
+                                .username("painter")
+                                .firstName("new")
+                                .lastName("savedUser")
+                                .city("Madrid")
+                                .preferences(List.of(PAINTING.getName()))
+                                .build())))
+                .andExpect(status().isCreated());
+
+        // when
+        MvcResult result = mockMvc.perform(get("/users-info/by-activity?activities=COOKING,BASEBALL&city=madrid")
+                        .with(jwt()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // then
+        BasicUsersPageResponse response = objectMapper.readValue(result.getResponse().getContentAsString(),
+                BasicUsersPageResponse.class);
+        assertThat(response.getUsers()).extracting(BasicUserResponse::getId).containsExactly(cookId);
+    }
+
+    private long activityMask(UUID userId) {
+        return jdbcTemplate.queryForObject("SELECT activity_mask FROM users.users WHERE id = ?", Long.class, userId);
+    }
+
+    private boolean preferencesStale(UUID userId) {
+        return jdbcTemplate.queryForObject("SELECT preferences_stale FROM users.users WHERE id = ?", Boolean.class,
+                userId);
+    }
+
+    private static RequestPostProcessor userJwt(UUID userId, String email) {
+        return jwt()
+                .jwt(jwt -> jwt
+                        .claim("sub", userId)
+                        .claim("email", email))
+                .authorities(new SimpleGrantedAuthority("ROLE_user"));
+    }
+}
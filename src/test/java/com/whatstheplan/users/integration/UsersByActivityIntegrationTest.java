@@ -0,0 +1,163 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.entities.Preferences;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.response.BasicUserResponse;
+import com.whatstheplan.users.model.response.BasicUsersPageResponse;
+import com.whatstheplan.users.model.response.ErrorResponse;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.whatstheplan.users.model.ActivityType.CLIMBING;
+import static com.whatstheplan.users.model.ActivityType.FOOD;
+import static com.whatstheplan.users.model.ActivityType.HIKING;
+import static com.whatstheplan.users.model.ActivityType.SOCCER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UsersByActivityIntegrationTest extends BaseIntegrationTest {
+
+    // UUID.compareTo compares signed longs, Postgres compares unsigned bytes like their text form.
+    private static final Comparator<UUID> POSTGRES_UUID_ORDER = Comparator.comparing(UUID::toString);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+    }
+
+    @Test
+    void whenFindingUsersByActivityAndCity_thenShouldReturnOnlyMatchingUsers() throws Exception {
+        //given
+        User hiker = saveUser("hiker", "Madrid", HIKING);
+        User climber = saveUser("climber", "MADRID", CLIMBING, SOCCER);
+        saveUser("soccer_player", "Madrid", SOCCER);
+        saveUser("remote_hiker", "Sevilla", HIKING);
+
+        // when
+        BasicUsersPageResponse response = find("activities=HIKING,CLIMBING&city=madrid");
+
+        // then
+        assertThat(response.getUsers())
+                .extracting(BasicUserResponse::getId)
+                .containsExactly(sorted(hiker.getId(), climber.getId()));
+        assertThat(response.getNextCursor()).isNull();
+    }
+
+    @Test
+    void whenActivitiesAreGivenByDisplayName_thenShouldReturnMatchingUsers() throws Exception {
+        //given
+        User cook = saveUser("cook", "Madrid", FOOD);
+        User hiker = saveUser("hiker", "Madrid", HIKING);
+        saveUser("soccer_player", "Madrid", SOCCER);
+
+        // when
+        MvcResult result = mockMvc.perform(get("/users-info/by-activity")
+                        .param("activities", "Food & Dining,HIKING")
+                        .param("city", "Madrid")
+                        .with(jwt()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // then
+        BasicUsersPageResponse response = objectMapper.readValue(result.getResponse().getContentAsString(),
+                BasicUsersPageResponse.class);
+        assertThat(response.getUsers())
+                .extracting(BasicUserResponse::getId)
+                .containsExactly(sorted(cook.getId(), hiker.getId()));
+    }
+
+    @Test
+    void whenPagingThroughUsers_thenEveryMatchingUserShouldBeReturnedOnceInIdOrder() throws Exception {
+        //given
+        List<UUID> hikers = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            hikers.add(saveUser("hiker_" + i, "Madrid", HIKING).getId());
+        }
+        hikers.sort(POSTGRES_UUID_ORDER);
+
+        // when
+        List<UUID> found = new ArrayList<>();
+        BasicUsersPageResponse page = find("activities=HIKING&city=Madrid&limit=3");
+        found.addAll(page.getUsers().stream().map(BasicUserResponse::getId).toList());
+        while (page.getNextCursor() != null) {
+            page = find("activities=HIKING&city=Madrid&limit=3&cursor=" + page.getNextCursor());
+            found.addAll(page.getUsers().stream().map(BasicUserResponse::getId).toList());
+        }
+
+        // then
+        assertThat(found).containsExactlyElementsOf(hikers);
+    }
+
+    @Test
+    void whenTheActivityIsUnknown_thenShouldReturnError() throws Exception {
+        // when
+        MvcResult result = mockMvc.perform(get("/users-info/by-activity?activities=SKYDIVING&city=Madrid")
+                        .with(jwt()))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        // then
+        ErrorResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponse.class);
+        assertThat(response.getReason()).isEqualTo("Invalid value for activities.");
+    }
+
+    private BasicUsersPageResponse find(String query) throws Exception {
+        MvcResult result = mockMvc.perform(get("/users-info/by-activity?" + query)
+                        .with(jwt()))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), BasicUsersPageResponse.class);
+    }
+
+    private User saveUser(String username, String city, ActivityType... activityTypes) {
+        Set<ActivityType> activities = EnumSet.noneOf(ActivityType.class);
+        activities.addAll(List.of(activityTypes));
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .email(username + "@test.com")
+                .username(username)
+                .firstName("firstName")
+                .lastName("lastName")
+                .city(city)
+                .activities(activities)
+                .build();
+        user.setPreferences(activities.stream()
+                .map(activityType -> new Preferences(null, activityType, user))
+                .toList());
+        return usersRepository.save(user);
+    }
+
+    private static UUID[] sorted(UUID... ids) {
+        return List.of(ids).stream().sorted(POSTGRES_UUID_ORDER).toArray(UUID[]::new);
+    }
+}
@@ -0,0 +1,192 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.request.UserProfileRequest;
+import com.whatstheplan.users.model.response.BasicUserResponse;
+import com.whatstheplan.users.model.response.UserResponse;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.services.UserCacheService;
+import com.whatstheplan.users.services.UsersChangedListener;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static com.whatstheplan.users.config.CacheConfig.USERS_VERSIONS_CACHE;
+import static com.whatstheplan.users.model.ActivityType.COOKING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
+
+class UsersCacheIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private UserCacheService userCacheService;
+
+    @Autowired
+    private UsersChangedListener usersChangedListener;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+        userCacheService.evictAll();
+        await().atMost(Duration.ofSeconds(10)).until(() -> usersChangedListener.getConnections() > 0);
+    }
+
+    @Test
+    void whenAnUnknownUserIsRequested_thenNotFoundShouldBeCachedUntilTheUserIsCreated() throws Exception {
+        //given
+        UUID userId = UUID.randomUUID();
+        mockMvc.perform(get("/users-info/" + userId).with(jwt()))
+                .andExpect(status().isBadRequest());
+
+        // when - then
+        ValueWrapper cached = cacheManager.getCache(USERS_VERSIONS_CACHE).get(userId);
+        assertThat(cached).isNotNull();
+        assertThat(cached.get()).isNull();
+
+        mockMvc.perform(get("/users-info/" + userId).with(jwt()))
+                .andExpect(status().isBadRequest());
+
+        usersRepository.save(User.builder()
+                .id(userId)
+                .email("test@test.com")
+                .username("username")
+                .firstName("firstName")
+                .lastName("lastName")
+                .city("city")
+                .build());
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> cacheManager.getCache(USERS_VERSIONS_CACHE).get(userId) == null);
+
+        MvcResult result = mockMvc.perform(get("/users-info/" + userId).with(jwt()))
+                .andExpect(status().isOk())
+                .andReturn();
+        BasicUserResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), BasicUserResponse.class);
+        assertThat(response.getUsername()).isEqualTo("username");
+    }
+
+    @Test
+    void whenAUserUpdatesTheProfile_thenCachedProfileShouldBeRefreshed() throws Exception {
+        //given
+        UUID userId = UUID.randomUUID();
+        String email = "test@test.com";
+        usersRepository.save(User.builder()
+                .id(userId)
+                .email(email)
+                .username("username")
+                .firstName("firstName")
+                .lastName("lastName")
+                .city("city")
+                .build());
+
+        mockMvc.perform(get("/users")
+                        .with(jwt()
+                                .jwt(jwt -> jwt
+                                        .claim("sub", userId)
+                                        .claim("email", email))
+                                .authorities(new SimpleGrantedAuthority("ROLE_user"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.city").value("city"));
+
+        UserProfileRequest updateUser = UserProfileRequest.builder()
+                .username("username")
+                .firstName("firstName")
+                .lastName("lastName")
+                .city("new_city")
+                .preferences(List.of(COOKING.getName()))
+                .build();
+
+        // when
+        mockMvc.perform(put("/users")
+                        .with(jwt()
+                                .jwt(jwt -> jwt
+                                        .claim("sub", userId)
+                                        .claim("email", email))
+                                .authorities(new SimpleGrantedAuthority("ROLE_user")))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(updateUser)))
+                .andExpect(status().isOk());
+
+        // then
+        MvcResult result = mockMvc.perform(get("/users")
+                        .with(jwt()
+                                .jwt(jwt -> jwt
+                                        .claim("sub", userId)
+                                        .claim("email", email))
+                                .authorities(new SimpleGrantedAuthority("ROLE_user"))))
+                .andExpect(status().isOk())
+                .andReturn();
+        UserResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), UserResponse.class);
+        assertThat(response.getCity()).isEqualTo("new_city");
+        assertThat(response.getPreferences()).containsExactly(COOKING.getName());
+    }
+
+    @Test
+    void whenCachedUsersAreRequested_thenHitsAndMissesShouldBeExposedThroughActuator() throws Exception {
+        //given
+        UUID userId = UUID.randomUUID();
+        usersRepository.save(User.builder()
+                .id(userId)
+                .email("test@test.com")
+                .username("username")
+                .firstName("firstName")
+                .lastName("lastName")
+                .city("city")
+                .build());
+
+        // when
+        mockMvc.perform(get("/users-info/" + userId).with(jwt()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/users-info/" + userId).with(jwt()))
+                .andExpect(status().isOk());
+
+        // then
+        mockMvc.perform(get("/actuator/metrics/cache.gets")
+                        .param("tag", "cache:users-info", "result:hit")
+                        .with(jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").value(greaterThanOrEqualTo(1.0)));
+        mockMvc.perform(get("/actuator/metrics/cache.gets")
+                        .param("tag", "cache:users-info", "result:miss")
+                        .with(jwt()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/cache.evictions")
+                        .param("tag", "cache:users-info")
+                        .with(jwt()))
+                .andExpect(status().isOk());
+    }
+}
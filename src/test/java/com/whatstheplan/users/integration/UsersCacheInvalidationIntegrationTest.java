@@ -0,0 +1,199 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.request.UserProfileRequest;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.services.UserCacheService;
+import com.whatstheplan.users.services.UsernameSearchService;
+import com.whatstheplan.users.services.UsersChangedListener;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import com.whatstheplan.users.testconfig.jdbc.StatementCounter;
+import com.whatstheplan.users.testconfig.jdbc.StatementCounterConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static com.whatstheplan.users.config.CacheConfig.USERS_INFO_CACHE;
+import static com.whatstheplan.users.model.ActivityType.SOCCER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Import({TestChannelBinderConfiguration.class, StatementCounterConfiguration.class})
+class UsersCacheInvalidationIntegrationTest extends BaseIntegrationTest {
+
+    private static final String INDEX_REFRESH_QUERY = "select u1_0.id,u1_0.username,u1_0.email,u1_0.city,"
+            + "u1_0.activity_mask from users.users u1_0 where u1_0.id in";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private UserCacheService userCacheService;
+
+    @Autowired
+    private UsersChangedListener usersChangedListener;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UsernameSearchService usernameSearchService;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+        userCacheService.evictAll();
+        await().atMost(Duration.ofSeconds(10)).until(() -> usersChangedListener.getConnections() > 0);
+    }
+
+    @Test
+    void whenAUserIsChangedByAnotherInstance_thenCachedUserShouldBeEvicted() throws Exception {
+        //given
+        UUID userId = saveUser();
+        mockMvc.perform(get("/users-info/" + userId).with(jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("username"));
+
+        // when
+        jdbcTemplate.update("UPDATE users.users SET username = 'other_username' WHERE id = ?", userId);
+
+        // then
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> cacheManager.getCache(USERS_INFO_CACHE).get(userId) == null);
+        mockMvc.perform(get("/users-info/" + userId).with(jwt()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("other_username"));
+    }
+
+    @Test
+    void whenSeveralUsersAreChangedByAnotherInstance_thenTheyShouldBeReReadInOneQuery() {
+        //given
+        List<UUID> userIds = List.of(saveUser("first"), saveUser("second"), saveUser("third"));
+        awaitIndexed("third");
+        statementCounter.reset();
+
+        // when
+        jdbcTemplate.update("UPDATE users.users SET username = 'renamed_' || username WHERE id IN (?, ?, ?)",
+                userIds.get(0), userIds.get(1), userIds.get(2));
+
+        // then
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> usernameSearchService.search("renamed_", 10).size() == 3);
+        assertThat(statementCounter.getStatements())
+                .filteredOn(sql -> sql.startsWith("select") && sql.contains("users.users"))
+                .singleElement()
+                .satisfies(sql -> assertThat(sql).startsWith(INDEX_REFRESH_QUERY));
+    }
+
+    @Test
+    void whenAUserIsChangedThroughThisInstance_thenItsNotificationShouldNotReReadIt() throws Exception {
+        //given
+        UUID userId = saveUser("username");
+        awaitIndexed("username");
+        double skippedRefreshes = meterRegistry.counter("users.index.refreshes.skipped").count();
+        statementCounter.reset();
+
+        // when
+        mockMvc.perform(put("/users")
+                        .with(jwt()
+                                .jwt(jwt -> jwt
+                                        .claim("sub", userId)
+                                        .claim("email", "username@test.com"))
+                                .authorities(new SimpleGrantedAuthority("ROLE_user")))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(UserProfileRequest.builder()
+                                .username("changed_here")
+                                .firstName("firstName")
+                                .lastName("lastName")
+                                .city("city")
+                                .preferences(List.of(SOCCER.getName()))
+                                .build())))
+                .andExpect(status().isOk());
+
+        // then
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> meterRegistry.counter("users.index.refreshes.skipped").count() > skippedRefreshes);
+        assertThat(statementCounter.getStatements()).noneMatch(sql -> sql.startsWith(INDEX_REFRESH_QUERY));
+        assertThat(usernameSearchService.search("changed_here", 10)).hasSize(1);
+    }
+
+    @Test
+    void whenTheListenerConnectionIsLost_thenShouldReconnectAndFlushCachedUsers() throws Exception {
+        //given
+        UUID userId = saveUser();
+        mockMvc.perform(get("/users-info/" + userId).with(jwt()))
+                .andExpect(status().isOk());
+        assertThat(cacheManager.getCache(USERS_INFO_CACHE).get(userId)).isNotNull();
+        long connections = usersChangedListener.getConnections();
+
+        // when
+        jdbcTemplate.queryForObject("SELECT pg_terminate_backend(?)", Boolean.class,
+                usersChangedListener.getBackendPid());
+
+        // then
+        await().atMost(Duration.ofSeconds(30))
+                .until(() -> usersChangedListener.getConnections() > connections);
+        assertThat(cacheManager.getCache(USERS_INFO_CACHE).get(userId)).isNull();
+    }
+
+    // Saved through the repository, the users only reach the indexes once their notifications are processed.
+    private void awaitIndexed(String username) {
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> !usernameSearchService.search(username, 1).isEmpty());
+    }
+
+    private UUID saveUser() {
+        return saveUser("username");
+    }
+
+    private UUID saveUser(String username) {
+        UUID userId = UUID.randomUUID();
+        usersRepository.save(User.builder()
+                .id(userId)
+                .email(username + "@test.com")
+                .username(username)
+                .firstName("firstName")
+                .lastName("lastName")
+                .city("city")
+                .build());
+        return userId;
+    }
+}
@@ -0,0 +1,160 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.request.UserProfileRequest;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.whatstheplan.users.model.ActivityType.COOKING;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpHeaders.CACHE_CONTROL;
+import static org.springframework.http.HttpHeaders.ETAG;
+import static org.springframework.http.HttpHeaders.IF_NONE_MATCH;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
+
+class UsersConditionalRetrievalControllerIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+    }
+
+    @Test
+    void whenAUserGetsProfileWithMatchingETag_thenShouldReturnNotModified() throws Exception {
+        //given
+        UUID userId = UUID.randomUUID();
+        String email = "test@test.com";
+        saveUser(userId, email);
+
+        MvcResult first = mockMvc.perform(get("/users").with(userJwt(userId, email)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CACHE_CONTROL, "no-cache, private"))
+                .andReturn();
+        String eTag = first.getResponse().getHeader(ETAG);
+        assertThat(eTag).isNotBlank();
+
+        // when - then
+        mockMvc.perform(get("/users")
+                        .with(userJwt(userId, email))
+                        .header(IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void whenAUserGetsProfileWithStaleETag_thenShouldReturnUpdatedProfile() throws Exception {
+        //given
+        UUID userId = UUID.randomUUID();
+        String email = "test@test.com";
+        saveUser(userId, email);
+
+        String eTag = mockMvc.perform(get("/users").with(userJwt(userId, email)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(ETAG);
+
+        mockMvc.perform(put("/users")
+                        .with(userJwt(userId, email))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(UserProfileRequest.builder()
+                                .username("username")
+                                .firstName("firstName")
+                                .lastName("lastName")
+                                .city("new_city")
+                                .preferences(List.of(COOKING.getName()))
+                                .build())))
+                .andExpect(status().isOk());
+
+        // when
+        MvcResult result = mockMvc.perform(get("/users")
+                        .with(userJwt(userId, email))
+                        .header(IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // then
+        assertThat(result.getResponse().getHeader(ETAG)).isNotEqualTo(eTag);
+        assertThat(result.getResponse().getContentAsString()).contains("new_city");
+    }
+
+    @Test
+    void whenAUserGetsBasicInfoWithMatchingETag_thenShouldReturnNotModified() throws Exception {
+        //given
+        UUID userId = UUID.randomUUID();
+        saveUser(userId, "test@test.com");
+
+        MvcResult first = mockMvc.perform(get("/users-info/" + userId).with(jwt()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CACHE_CONTROL, "max-age=60, must-revalidate, private"))
+                .andReturn();
+        String eTag = first.getResponse().getHeader(ETAG);
+
+        // when - then
+        mockMvc.perform(get("/users-info/" + userId)
+                        .with(jwt())
+                        .header(IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void whenAUserGetsBasicInfoOfUnknownUserWithETag_thenShouldReturnError() throws Exception {
+        // given - when - then
+        mockMvc.perform(get("/users-info/" + UUID.randomUUID())
+                        .with(jwt())
+                        .header(IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void saveUser(UUID userId, String email) {
+        usersRepository.save(User.builder()
+                .id(userId)
+                .email(email)
+                .username("username")
+                .firstName("firstName")
+                .lastName("lastName")
+                .city("city")
+                .build());
+    }
+
+    private static RequestPostProcessor userJwt(UUID userId, String email) {
+        return jwt()
+                .jwt(jwt -> jwt
+                        .claim("sub", userId)
+                        .claim("email", email))
+                .authorities(new SimpleGrantedAuthority("ROLE_user"));
+    }
+}
@@ -114,6 +114,38 @@ class UsersCreationControllerIntegrationTest extends BaseIntegrationTest {
         assertThat(welcomeEmail.getUsername()).isEqualTo(newUser.getUsername());
     }
 
+    @Test
+    void whenPreferencesAreRepeated_thenShouldBeStoredOnceAndReturnedInRequestOrder() throws Exception {
+        //given
+        UserProfileRequest newUser = UserProfileRequest.builder()
+                .username("new_user")
+                .firstName("new")
+                .lastName("savedUser")
+                .city("city")
+                .preferences(List.of(FOOD.getName(), SOCCER.getName(), FOOD.getName(), BASEBALL.getName()))
+                .build();
+
+        // when
+        MvcResult result = mockMvc.perform(post("/users")
+                        .with(jwt()
+                                .jwt(jwt -> jwt
+                                        .claim("sub", UUID.randomUUID())
+                                        .claim("email", "test@test.com"))
+                                .authorities(new SimpleGrantedAuthority("ROLE_user")))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(newUser)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        // then
+        UserResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), UserResponse.class);
+        assertThat(response.getPreferences())
+                .containsExactly(FOOD.getName(), SOCCER.getName(), BASEBALL.getName());
+        assertThat(preferencesRepository.findAll())
+                .extracting(Preferences::getActivityType)
+                .containsExactlyInAnyOrder(FOOD, SOCCER, BASEBALL);
+    }
+
     @Test
     void whenAUserCreationRequestWithAlreadyExistingUsername_thenWillReturnBadRequest() throws Exception {
         //given
@@ -198,6 +230,48 @@ class UsersCreationControllerIntegrationTest extends BaseIntegrationTest {
         assertThat(preferencesRepository.count()).isEqualTo(0);
     }
 
+    @Test
+    void whenTheUserAlreadyHasAProfile_thenWillReturnBadRequest() throws Exception {
+        //given
+        UUID userId = UUID.randomUUID();
+        UserProfileRequest newUser = UserProfileRequest.builder()
+                .username("new_user")
+                .firstName("new")
+                .lastName("savedUser")
+                .city("city")
+                .preferences(List.of(SOCCER.getName()))
+                .build();
+
+        usersRepository.save(User.builder()
+                .id(userId)
+                .email("existing@test.com")
+                .username("existing_user")
+                .firstName("new")
+                .lastName("savedUser")
+                .city("city")
+                .build());
+
+        // when
+        MvcResult result = mockMvc.perform(post("/users")
+                        .with(jwt()
+                                .jwt(jwt -> jwt
+                                        .claim("sub", userId)
+                                        .claim("email", "test@test.com"))
+                                .authorities(new SimpleGrantedAuthority("ROLE_user")))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(newUser)))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        // then
+        ErrorResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponse.class);
+        assertThat(response.getReason()).isEqualTo("User already exists.");
+
+        User stored = usersRepository.findById(userId).orElseThrow();
+        assertThat(stored.getUsername()).isEqualTo("existing_user");
+        assertThat(preferencesRepository.count()).isEqualTo(0);
+    }
+
     @Test
     void whenAUserCreationRequestWithBadParameters_thenWillReturnBadRequest() throws Exception {
         //given
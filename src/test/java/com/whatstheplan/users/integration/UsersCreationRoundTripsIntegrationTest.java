@@ -0,0 +1,125 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.request.UserProfileRequest;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import com.whatstheplan.users.testconfig.jdbc.StatementCounter;
+import com.whatstheplan.users.testconfig.jdbc.StatementCounterConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
+
+@Import({TestChannelBinderConfiguration.class, StatementCounterConfiguration.class})
+class UsersCreationRoundTripsIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+    }
+
+    @Test
+    void whenAUserWithManyPreferencesIsCreated_thenPreferencesShouldBeInsertedInASingleBatch() throws Exception {
+        //given
+        List<String> preferences = Arrays.stream(ActivityType.values())
+                .limit(20)
+                .map(ActivityType::getName)
+                .toList();
+        UserProfileRequest newUser = UserProfileRequest.builder()
+                .username("new_user")
+                .firstName("new")
+                .lastName("savedUser")
+                .city("city")
+                .preferences(preferences)
+                .build();
+        statementCounter.reset();
+
+        // when
+        mockMvc.perform(post("/users")
+                        .with(jwt()
+                                .jwt(jwt -> jwt
+                                        .claim("sub", UUID.randomUUID())
+                                        .claim("email", "test@test.com"))
+                                .authorities(new SimpleGrantedAuthority("ROLE_user")))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(newUser)))
+                .andExpect(status().isCreated());
+
+        // then
+        assertThat(statementCounter.selects("users")).isZero();
+        assertThat(statementCounter.inserts("users")).isEqualTo(1);
+        assertThat(statementCounter.inserts("preferences")).isEqualTo(1);
+        assertThat(statementCounter.getStatementsOnCurrentThread())
+                .hasSize(3)
+                .anyMatch(sql -> sql.startsWith("insert into users.outbox_messages"));
+        assertThat(preferencesRepository.count()).isEqualTo(20);
+    }
+
+    @Test
+    void whenTheUsernameIsTaken_thenShouldAnswerWithOneInsertAndOneLookupWithoutAFailedStatement() throws Exception {
+        //given
+        usersRepository.save(User.builder()
+                .id(UUID.randomUUID())
+                .email("taken@test.com")
+                .username("taken_user")
+                .build());
+        UserProfileRequest newUser = UserProfileRequest.builder()
+                .username("TAKEN_user")
+                .firstName("new")
+                .lastName("savedUser")
+                .city("city")
+                .preferences(List.of(ActivityType.SOCCER.getName()))
+                .build();
+        statementCounter.reset();
+
+        // when
+        mockMvc.perform(post("/users")
+                        .with(jwt()
+                                .jwt(jwt -> jwt
+                                        .claim("sub", UUID.randomUUID())
+                                        .claim("email", "test@test.com"))
+                                .authorities(new SimpleGrantedAuthority("ROLE_user")))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(newUser)))
+                .andExpect(status().isBadRequest());
+
+        // then
+        assertThat(statementCounter.inserts("users")).isEqualTo(1);
+        assertThat(statementCounter.getStatementsOnCurrentThread()).hasSize(2);
+        assertThat(usersRepository.count()).isEqualTo(1);
+        assertThat(preferencesRepository.count()).isZero();
+    }
+}
@@ -0,0 +1,140 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.response.ErrorResponse;
+import com.whatstheplan.users.model.response.UserSearchResponse;
+import com.whatstheplan.users.model.response.UserSearchResultResponse;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static com.whatstheplan.users.repository.UsersRepository.SEARCH_QUERY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "users.cache.invalidation.enabled=false")
+class UsersPeopleSearchIntegrationTest extends BaseIntegrationTest {
+
+    private static final int SEEDED_USERS = 10_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM users.users");
+        jdbcTemplate.update("""
+                INSERT INTO users.users (id, username, email, first_name, last_name, city)
+                SELECT gen_random_uuid(), 'user_' || i, 'user_' || i || '@test.com',
+                       (ARRAY ['Alex', 'Ana', 'Carlos', 'Elena', 'Hugo', 'Irene', 'Julia', 'Lucas'])[i % 8 + 1],
+                       (ARRAY ['Garcia', 'Lopez', 'Martin', 'Perez', 'Gomez', 'Diaz', 'Ruiz', 'Moreno'])[i % 7 + 1],
+                       (ARRAY ['Madrid', 'Sevilla', 'Valencia', 'Bilbao', 'Malaga'])[i % 5 + 1]
+                FROM generate_series(1, ?) AS i
+                """, SEEDED_USERS);
+        jdbcTemplate.update("""
+                INSERT INTO users.users (id, username, email, first_name, last_name, city)
+                VALUES (gen_random_uuid(), 'jsmith', 'jonathan@test.com', 'Jonathan', 'Smithson', 'Barcelona')
+                """);
+        jdbcTemplate.execute("ANALYZE users.users");
+    }
+
+    @Test
+    void whenSearchingWithATypo_thenShouldReturnTheClosestUserFirst() throws Exception {
+        // when
+        UserSearchResponse response = search("Jonatan Smitson", 10, null);
+
+        // then
+        assertThat(response.getResults()).isNotEmpty();
+        UserSearchResultResponse best = response.getResults().get(0);
+        assertThat(best.getUsername()).isEqualTo("jsmith");
+        assertThat(best.getFirstName()).isEqualTo("Jonathan");
+        assertThat(best.getCity()).isEqualTo("Barcelona");
+    }
+
+    @Test
+    void whenPagingThroughResults_thenPagesShouldBeDisjointAndOrderedByScore() throws Exception {
+        //given
+        List<UserSearchResultResponse> all = new ArrayList<>();
+        String cursor = null;
+
+        // when
+        for (int page = 0; page < 3; page++) {
+            UserSearchResponse response = search("Elena Garcia", 20, cursor);
+            assertThat(response.getResults()).hasSize(20);
+            all.addAll(response.getResults());
+            cursor = response.getNextCursor();
+            assertThat(cursor).isNotNull();
+        }
+
+        // then
+        assertThat(all).extracting(UserSearchResultResponse::getId).doesNotHaveDuplicates();
+        for (int i = 1; i < all.size(); i++) {
+            assertThat(all.get(i).getScore()).isLessThanOrEqualTo(all.get(i - 1).getScore());
+        }
+    }
+
+    @Test
+    void whenExplainingTheSearchQuery_thenThePlanShouldUseTheTrigramIndex() {
+        //given
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("query", "Jonatan Smitson")
+                .addValue("limit", 10);
+
+        // when
+        List<String> plan = namedParameterJdbcTemplate.queryForList(
+                "EXPLAIN " + SEARCH_QUERY.replace("{h-schema}", "users."), parameters, String.class);
+
+        // then
+        assertThat(String.join("\n", plan))
+                .contains("idx_users_search_text_trgm")
+                .doesNotContain("Seq Scan on users");
+    }
+
+    @Test
+    void whenTheCursorIsMalformed_thenShouldReturnError() throws Exception {
+        // when
+        MvcResult result = mockMvc.perform(get("/users-info/people")
+                        .param("query", "Elena")
+                        .param("cursor", "not-a-cursor")
+                        .with(jwt()))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        // then
+        ErrorResponse response = objectMapper.readValue(result.getResponse().getContentAsString(), ErrorResponse.class);
+        assertThat(response.getReason()).isEqualTo("Invalid cursor.");
+    }
+
+    private UserSearchResponse search(String query, int limit, String cursor) throws Exception {
+        MvcResult result = mockMvc.perform(get("/users-info/people")
+                        .param("query", query)
+                        .param("limit", String.valueOf(limit))
+                        .param("cursor", cursor)
+                        .with(jwt()))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), UserSearchResponse.class);
+    }
+}
@@ -0,0 +1,146 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.request.UserProfileRequest;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import com.whatstheplan.users.testconfig.jdbc.StatementCounter;
+import com.whatstheplan.users.testconfig.jdbc.StatementCounterConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.whatstheplan.users.model.ActivityType.BASEBALL;
+import static com.whatstheplan.users.model.ActivityType.COOKING;
+import static com.whatstheplan.users.model.ActivityType.FOOD;
+import static com.whatstheplan.users.model.ActivityType.LANGUAGE_LEARNING;
+import static com.whatstheplan.users.model.ActivityType.SOCCER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
+
+@Import({TestChannelBinderConfiguration.class, StatementCounterConfiguration.class})
+class UsersPreferencesDiffUpdateIntegrationTest extends BaseIntegrationTest {
+
+    private static final String EMAIL = "test@test.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+
+        userId = UUID.randomUUID();
+        mockMvc.perform(post("/users")
+                        .with(userJwt(userId))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(profileRequest("city", List.of(SOCCER, BASEBALL, FOOD)))))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void whenOnlyTheCityIsUpdated_thenNoPreferenceRowsShouldBeTouched() throws Exception {
+        //given
+        Map<ActivityType, UUID> storedPreferences = preferenceIds();
+        statementCounter.reset();
+
+        // when
+        mockMvc.perform(put("/users")
+                        .with(userJwt(userId))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(profileRequest("new city", List.of(FOOD, SOCCER, BASEBALL)))))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(statementCounter.updates("users")).isEqualTo(1);
+        assertThat(statementCounter.deletes("preferences")).isZero();
+        assertThat(statementCounter.inserts("preferences")).isZero();
+        assertThat(statementCounter.updates("preferences")).isZero();
+        assertThat(preferenceIds()).isEqualTo(storedPreferences);
+    }
+
+    @Test
+    void whenPreferencesAreUpdated_thenOnlyTheDifferenceShouldBeWritten() throws Exception {
+        //given
+        UUID soccerPreferenceId = preferenceIds().get(SOCCER);
+        statementCounter.reset();
+
+        // when
+        mockMvc.perform(put("/users")
+                        .with(userJwt(userId))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(profileRequest("city", List.of(SOCCER, COOKING, LANGUAGE_LEARNING)))))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(statementCounter.deletes("preferences")).isEqualTo(1);
+        assertThat(statementCounter.inserts("preferences")).isEqualTo(1);
+        assertThat(statementCounter.updates("preferences")).isZero();
+        assertThat(preferenceIds())
+                .containsOnlyKeys(SOCCER, COOKING, LANGUAGE_LEARNING)
+                .containsEntry(SOCCER, soccerPreferenceId);
+        assertThat(jdbcTemplate.queryForObject("SELECT activity_mask FROM users.users WHERE id = ?", Long.class, userId))
+                .isEqualTo(SOCCER.mask() | COOKING.mask() | LANGUAGE_LEARNING.mask());
+    }
+
+    private Map<ActivityType, UUID> preferenceIds() {
+        return jdbcTemplate.queryForList("SELECT id, activity_type FROM users.preferences WHERE user_id = ?", userId)
+                .stream()
+                .collect(Collectors.toMap(
+                        row -> ActivityType.valueOf((String) row.get("activity_type")),
+                        row -> (UUID) row.get("id")));
+    }
+
+    private static UserProfileRequest profileRequest(String city, List<ActivityType> activities) {
+        return UserProfileRequest.builder()
+                .username("new_user")
+                .firstName("new")
+                .lastName("savedUser")
+                .city(city)
+                .preferences(activities.stream().map(ActivityType::getName).toList())
+                .build();
+    }
+
+    private static RequestPostProcessor userJwt(UUID userId) {
+        return jwt()
+                .jwt(jwt -> jwt
+                        .claim("sub", userId)
+                        .claim("email", EMAIL))
+                .authorities(new SimpleGrantedAuthority("ROLE_user"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.whatstheplan.users.integration;
+
+import com.whatstheplan.users.model.entities.Preferences;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.services.ActivityIndexService;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import com.whatstheplan.users.testconfig.jdbc.StatementCounter;
+import com.whatstheplan.users.testconfig.jdbc.StatementCounterConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static com.whatstheplan.users.model.ActivityType.FOOD;
+import static com.whatstheplan.users.model.ActivityType.SOCCER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Import({TestChannelBinderConfiguration.class, StatementCounterConfiguration.class})
+class UsersProjectionReadsIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private StatementCounter statementCounter;
+
+    @Autowired
+    private ActivityIndexService activityIndexService;
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+    }
+
+    @Test
+    void whenBasicInfoIsRead_thenOnlyItsColumnsShouldBeSelected() throws Exception {
+        //given
+        UUID userId = saveUserWithPreferences();
+        statementCounter.reset();
+
+        // when
+        mockMvc.perform(get("/users-info/" + userId).with(jwt()))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(statementCounter.selects("preferences")).isZero();
+        assertThat(statementCounter.getStatementsOnCurrentThread())
+                .hasSize(2)
+                .noneMatch(sql -> sql.contains("first_name") || sql.contains("join"));
+    }
+
+    @Test
+    void whenAProfileIsRead_thenItsPreferencesShouldBeJoinedWithoutLoadingEntities() throws Exception {
+        //given
+        UUID userId = saveUserWithPreferences();
+        statementCounter.reset();
+
+        // when
+        mockMvc.perform(get("/users")
+                        .with(jwt()
+                                .jwt(jwt -> jwt
+                                        .claim("sub", userId)
+                                        .claim("email", "projected@test.com"))
+                                .authorities(new SimpleGrantedAuthority("ROLE_user"))))
+                .andExpect(status().isOk());
+
+        // then
+        // Entity loads would also select the audit columns of users and preferences.
+        assertThat(statementCounter.getStatementsOnCurrentThread())
+                .hasSize(2)
+                .filteredOn(sql -> sql.contains("preferences"))
+                .singleElement()
+                .satisfies(sql -> assertThat(sql.substring(0, sql.indexOf(" from ")))
+                        .endsWith("activity_type")
+                        .doesNotContain("created_date", "last_modified_date"));
+    }
+
+    @Test
+    void whenTheActivityIndexIsRebuilt_thenOnlyItsColumnsShouldBeSelected() {
+        //given
+        saveUserWithPreferences();
+        statementCounter.reset();
+
+        // when
+        activityIndexService.rebuild();
+
+        // then
+        assertThat(statementCounter.selects("preferences")).isZero();
+        assertThat(statementCounter.getStatementsOnCurrentThread())
+                .singleElement()
+                .satisfies(sql -> assertThat(sql).doesNotContain("first_name", "created_date"));
+    }
+
+    private UUID saveUserWithPreferences() {
+        UUID userId = UUID.randomUUID();
+        User user = User.builder()
+                .id(userId)
+                .email("projected@test.com")
+                .username("projected")
+                .firstName("firstName")
+                .lastName("lastName")
+                .city("city")
+                .activities(EnumSet.of(SOCCER, FOOD))
+                .build();
+        user.setPreferences(List.of(new Preferences(null, SOCCER, user), new Preferences(null, FOOD, user)));
+        usersRepository.save(user);
+        return userId;
+    }
+}
@@ -13,6 +13,8 @@ import com.whatstheplan.users.testconfig.BaseIntegrationTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -25,7 +27,11 @@ import static com.whatstheplan.users.model.ActivityType.COOKING;
 import static com.whatstheplan.users.model.ActivityType.FOOD;
 import static com.whatstheplan.users.model.ActivityType.LANGUAGE_LEARNING;
 import static com.whatstheplan.users.model.ActivityType.SOCCER;
+import static com.whatstheplan.users.utils.Utils.EMAIL_KEY;
+import static com.whatstheplan.users.utils.Utils.USERNAME_KEY;
+import static com.whatstheplan.users.utils.Utils.violatedConstraint;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -42,6 +48,9 @@ class UsersUpdateControllerIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private PreferencesRepository preferencesRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -230,6 +239,70 @@ class UsersUpdateControllerIntegrationTest extends BaseIntegrationTest {
                 .containsAll(preferences);
     }
 
+    @Test
+    void whenAnUserOnlyChangesTheCaseOfTheirUsername_thenShouldUpdateIt() throws Exception {
+        //given
+        UUID userId = UUID.randomUUID();
+        String email = "case@test.com";
+        usersRepository.save(User.builder()
+                .id(userId)
+                .email(email)
+                .username("case_user")
+                .firstName("firstName")
+                .lastName("lastName")
+                .city("city")
+                .build());
+
+        UserProfileRequest updateUser = UserProfileRequest.builder()
+                .username("Case_User")
+                .firstName("firstName")
+                .lastName("lastName")
+                .city("city")
+                .preferences(List.of(SOCCER.getName()))
+                .build();
+
+        // when
+        mockMvc.perform(put("/users")
+                        .with(jwt()
+                                .jwt(jwt -> jwt
+                                        .claim("sub", userId)
+                                        .claim("email", email))
+                                .authorities(new SimpleGrantedAuthority("ROLE_user")))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(updateUser)))
+                .andExpect(status().isOk());
+
+        // then
+        assertThat(usersRepository.findById(userId).orElseThrow().getUsername()).isEqualTo("Case_User");
+    }
+
+    @Test
+    void whenAWriteViolatesAUniqueKey_thenTheViolatedConstraintShouldBeNamed() {
+        //given
+        usersRepository.save(User.builder()
+                .id(UUID.randomUUID())
+                .email("unique@test.com")
+                .username("unique_user")
+                .build());
+
+        // when
+        DataIntegrityViolationException hibernateViolation = catchThrowableOfType(
+                DataIntegrityViolationException.class,
+                () -> usersRepository.saveAndFlush(User.builder()
+                        .id(UUID.randomUUID())
+                        .email("unique@test.com")
+                        .username("another_user")
+                        .build()));
+        DataIntegrityViolationException jdbcViolation = catchThrowableOfType(
+                DataIntegrityViolationException.class,
+                () -> jdbcTemplate.update("INSERT INTO users.users (id, username, email) VALUES (?, ?, ?)",
+                        UUID.randomUUID(), "UNIQUE_USER", "another@test.com"));
+
+        // then
+        assertThat(violatedConstraint(hibernateViolation)).contains(EMAIL_KEY);
+        assertThat(violatedConstraint(jdbcViolation)).contains(USERNAME_KEY);
+    }
+
     @Test
     void whenAnUserUpdateRequestWithBadParameters_thenWillReturnBadRequest() throws Exception {
         //given
@@ -0,0 +1,159 @@
+package com.whatstheplan.users.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.email.WelcomeEmail;
+import com.whatstheplan.users.model.entities.OutboxMessage;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.request.UserProfileRequest;
+import com.whatstheplan.users.repository.OutboxMessagesRepository;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static com.whatstheplan.users.model.ActivityType.SOCCER;
+import static com.whatstheplan.users.services.EmailService.WELCOME_EMAIL_BINDING;
+import static com.whatstheplan.users.testconfig.rabbit.RabbitUtils.poll;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
+
+@Import(TestChannelBinderConfiguration.class)
+class WelcomeEmailOutboxIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private OutboxMessagesRepository outboxMessagesRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    private OutputDestination output;
+
+    @BeforeEach
+    void setUp() {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> outboxMessagesRepository.countBySentDateIsNull() == 0);
+        outboxMessagesRepository.deleteAll();
+        output.clear();
+    }
+
+    @Test
+    void whenAUserIsCreated_thenWelcomeEmailShouldBeRelayedFromTheOutbox() throws Exception {
+        //given
+        String email = "test@test.com";
+
+        // when
+        mockMvc.perform(post("/users")
+                        .with(userJwt(email))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(profileRequest("new_user"))))
+                .andExpect(status().isCreated());
+
+        // then
+        List<OutboxMessage> outboxMessages = outboxMessagesRepository.findAll();
+        assertThat(outboxMessages).hasSize(1);
+        assertThat(outboxMessages.get(0).getDestination()).isEqualTo(WELCOME_EMAIL_BINDING);
+
+        WelcomeEmail welcomeEmail = poll(output, "mail", WelcomeEmail.class);
+        assertThat(welcomeEmail).isNotNull();
+        assertThat(welcomeEmail.getEmail()).isEqualTo(email);
+        assertThat(welcomeEmail.getUsername()).isEqualTo("new_user");
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> {
+            OutboxMessage relayed = outboxMessagesRepository.findById(outboxMessages.get(0).getId()).orElseThrow();
+            assertThat(relayed.getSentDate()).isNotNull();
+            assertThat(relayed.getAttempts()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void whenAUserCreationIsRolledBack_thenNoWelcomeEmailShouldBeQueued() throws Exception {
+        //given
+        usersRepository.save(User.builder()
+                .id(UUID.randomUUID())
+                .email("otheremail@mail.com")
+                .username("new_user")
+                .firstName("new")
+                .lastName("savedUser")
+                .city("city")
+                .build());
+
+        // when
+        mockMvc.perform(post("/users")
+                        .with(userJwt("test@test.com"))
+                        .contentType(APPLICATION_JSON_VALUE)
+                        .content(objectMapper.writeValueAsBytes(profileRequest("new_user"))))
+                .andExpect(status().isBadRequest());
+
+        // then
+        assertThat(outboxMessagesRepository.count()).isZero();
+        assertThat(output.receive(500L, "mail")).isNull();
+    }
+
+    @Test
+    void whenPendingMessagesAreLeftFromAPreviousRun_thenTheyShouldBeRelayed() throws Exception {
+        //given
+        OutboxMessage pending = outboxMessagesRepository.save(OutboxMessage.builder()
+                .destination(WELCOME_EMAIL_BINDING)
+                .payload(objectMapper.writeValueAsString(WelcomeEmail.builder()
+                        .username("left_over")
+                        .email("left.over@test.com")
+                        .build()))
+                .build());
+
+        // when
+        WelcomeEmail welcomeEmail = poll(output, "mail", WelcomeEmail.class);
+
+        // then
+        assertThat(welcomeEmail).isNotNull();
+        assertThat(welcomeEmail.getUsername()).isEqualTo("left_over");
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> assertThat(
+                outboxMessagesRepository.findById(pending.getId()).orElseThrow().getSentDate()).isNotNull());
+    }
+
+    private static UserProfileRequest profileRequest(String username) {
+        return UserProfileRequest.builder()
+                .username(username)
+                .firstName("new")
+                .lastName("savedUser")
+                .city("city")
+                .preferences(List.of(SOCCER.getName()))
+                .build();
+    }
+
+    private static RequestPostProcessor userJwt(String email) {
+        return jwt()
+                .jwt(jwt -> jwt
+                        .claim("sub", UUID.randomUUID())
+                        .claim("email", email))
+                .authorities(new SimpleGrantedAuthority("ROLE_user"));
+    }
+}
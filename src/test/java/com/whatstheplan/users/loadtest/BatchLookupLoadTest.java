@@ -0,0 +1,203 @@
+package com.whatstheplan.users.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.request.BasicUsersBatchRequest;
+import com.whatstheplan.users.model.response.BasicUsersBatchResponse;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.services.UserCacheService;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import com.whatstheplan.users.testconfig.security.StandInIssuer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares resolving N users with one {@code POST /users-info/batch} against N sequential
+ * {@code GET /users-info/{userId}} calls, for each of {@code loadTest.batchSizes}. The user caches are cleared before
+ * every round, so both sides reach the database. Run it alone with
+ * {@code gradle loadTest --tests '*BatchLookupLoadTest'}; the results are written next to {@code loadTest.report}.
+ */
+@Tag("load")
+@Import(TestChannelBinderConfiguration.class)
+class BatchLookupLoadTest extends BaseIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchLookupLoadTest.class);
+    private static final StandInIssuer ISSUER = startIssuer();
+    private static final int WARMUP_ROUNDS = 5;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private UserCacheService userCacheService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @DynamicPropertySource
+    static void issuerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.security.oauth2.resourceserver.jwt.issuer-uri", ISSUER::getIssuerUri);
+    }
+
+    @AfterAll
+    static void stopIssuer() {
+        ISSUER.close();
+    }
+
+    @Test
+    void compareBatchWithSingleLookups() throws Exception {
+        //given
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        List<UUID> userIds = seedUsers(Collections.max(settings.batchSizes()));
+        String token = ISSUER.mint(UUID.randomUUID(), "batch-lookup@example.com");
+
+        // when
+        Map<Integer, Comparison> comparisons = new TreeMap<>();
+        for (int batchSize : settings.batchSizes()) {
+            List<UUID> ids = userIds.subList(0, batchSize);
+            LatencyRecorder single = new LatencyRecorder();
+            LatencyRecorder batch = new LatencyRecorder();
+            long singleNanos = 0;
+            long batchNanos = 0;
+            for (int round = 0; round < WARMUP_ROUNDS + settings.iterations(); round++) {
+                userCacheService.evictAll();
+                long singleLatency = timed(() -> singleLookups(ids, token));
+                long batchLatency = timed(() -> batchLookup(ids, token));
+                if (round >= WARMUP_ROUNDS) {
+                    single.record(singleLatency, "200", false);
+                    batch.record(batchLatency, "200", false);
+                    singleNanos += singleLatency;
+                    batchNanos += batchLatency;
+                }
+            }
+            comparisons.put(batchSize, Comparison.of(single.report(singleNanos / 1e9), batch.report(batchNanos / 1e9)));
+        }
+
+        // then
+        Path report = settings.report().resolveSibling("batch-lookup.json");
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), comparisons);
+        comparisons.forEach((batchSize, comparison) -> log.info(
+                "{} ids: {} single GETs p50 {} ms, one batch p50 {} ms, {}x faster", batchSize, batchSize,
+                comparison.single().p50Millis(), comparison.batch().p50Millis(),
+                "%.1f".formatted(comparison.speedup())));
+        log.info("Batch lookup comparison written to {}", report.toAbsolutePath());
+    }
+
+    private void singleLookups(List<UUID> ids, String token) throws Exception {
+        for (UUID id : ids) {
+            HttpResponse<Void> response = client.send(authorized("/users-info/" + id, token).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+            assertThat(response.statusCode()).isEqualTo(200);
+        }
+    }
+
+    private void batchLookup(List<UUID> ids, String token) throws Exception {
+        HttpResponse<byte[]> response = client.send(authorized("/users-info/batch", token)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(
+                                objectMapper.writeValueAsBytes(new BasicUsersBatchRequest(ids))))
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readValue(response.body(), BasicUsersBatchResponse.class).getUsers())
+                .hasSize(ids.size());
+    }
+
+    private HttpRequest.Builder authorized(String path, String token) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(10))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json");
+    }
+
+    private List<UUID> seedUsers(int count) {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String username = "batch-" + Integer.toString(i, 36);
+            users.add(User.builder()
+                    .id(UUID.randomUUID())
+                    .username(username)
+                    .email(username + "@example.com")
+                    .firstName("Batch")
+                    .lastName("User")
+                    .city("Madrid")
+                    .preferences(List.of())
+                    .build());
+        }
+        return usersRepository.saveAll(users).stream()
+                .map(User::getId)
+                .toList();
+    }
+
+    private static long timed(Lookup lookup) throws Exception {
+        long start = System.nanoTime();
+        lookup.run();
+        return System.nanoTime() - start;
+    }
+
+    private static StandInIssuer startIssuer() {
+        try {
+            return new StandInIssuer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Lookup {
+        void run() throws Exception;
+    }
+
+    /**
+     * Latencies are per round, i.e. per N users resolved; throughput is rounds per second.
+     */
+    private record Comparison(LoadTestReport.OperationReport single,
+                              LoadTestReport.OperationReport batch,
+                              double speedup) {
+
+        static Comparison of(LoadTestReport.OperationReport single, LoadTestReport.OperationReport batch) {
+            return new Comparison(single, batch, single.p50Millis() / batch.p50Millis());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.whatstheplan.users.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+class LatencyRecorder {
+
+    private long[] latencies = new long[4096];
+    private int size;
+    private long errors;
+    private final Map<String, Long> outcomes = new TreeMap<>();
+
+    synchronized void record(long latencyNanos, String outcome, boolean error) {
+        append(latencyNanos);
+        outcomes.merge(outcome, 1L, Long::sum);
+        if (error) {
+            errors++;
+        }
+    }
+
+    synchronized void recordAll(LatencyRecorder other) {
+        synchronized (other) {
+            for (int i = 0; i < other.size; i++) {
+                append(other.latencies[i]);
+            }
+            other.outcomes.forEach((outcome, count) -> outcomes.merge(outcome, count, Long::sum));
+            errors += other.errors;
+        }
+    }
+
+    synchronized LoadTestReport.OperationReport report(double durationSeconds) {
+        long[] sorted = Arrays.copyOf(latencies, size);
+        Arrays.sort(sorted);
+        return new LoadTestReport.OperationReport(
+                size,
+                errors,
+                size == 0 ? 0 : (double) errors / size,
+                size / durationSeconds,
+                percentileMillis(sorted, 0.50),
+                percentileMillis(sorted, 0.90),
+                percentileMillis(sorted, 0.99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000_000.0,
+                new TreeMap<>(outcomes));
+    }
+
+    private void append(long latencyNanos) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = latencyNanos;
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(rank - 1, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,88 @@
+package com.whatstheplan.users.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Open-model generator: requests are scheduled at a fixed rate regardless of how fast responses come back,
+ * and latency is measured from the scheduled send time so a stalled server cannot hide its own queueing
+ * (coordinated omission).
+ */
+class LoadGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final LoadTestSettings settings;
+    private final Function<Operation, HttpRequest> requestFactory;
+    private final Operation[] weightedOperations;
+
+    LoadGenerator(HttpClient client, LoadTestSettings settings, Function<Operation, HttpRequest> requestFactory) {
+        this.client = client;
+        this.settings = settings;
+        this.requestFactory = requestFactory;
+        this.weightedOperations = settings.mix().entrySet().stream()
+                .flatMap(entry -> Stream.generate(entry::getKey).limit(entry.getValue()))
+                .toArray(Operation[]::new);
+    }
+
+    Map<Operation, LatencyRecorder> run(Duration duration) throws InterruptedException {
+        Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+        settings.mix().keySet().forEach(operation -> recorders.put(operation, new LatencyRecorder()));
+
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.rps();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = weightedOperations[ThreadLocalRandom.current().nextInt(weightedOperations.length)];
+            LatencyRecorder recorder = recorders.get(operation);
+            if (!inFlight.tryAcquire()) {
+                recorder.record(System.nanoTime() - intended, "dropped", true);
+                continue;
+            }
+
+            long scheduledAt = intended;
+            client.sendAsync(requestFactory.apply(operation), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, exception) -> {
+                        long latency = System.nanoTime() - scheduledAt;
+                        if (exception != null) {
+                            Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+                                    ? exception.getCause()
+                                    : exception;
+                            recorder.record(latency, cause.getClass().getSimpleName(), true);
+                        } else {
+                            recorder.record(latency, String.valueOf(response.statusCode()),
+                                    operation.isError(response.statusCode()));
+                        }
+                        inFlight.release();
+                    });
+        }
+
+        if (!inFlight.tryAcquire(settings.maxInFlight(), DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Load test requests still in flight after {}", DRAIN_TIMEOUT);
+        }
+        return recorders;
+    }
+}
@@ -0,0 +1,74 @@
+package com.whatstheplan.users.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+record LoadTestReport(String startedAt,
+                      String javaVersion,
+                      boolean virtualThreads,
+                      int targetRps,
+                      double durationSeconds,
+                      Map<Operation, Integer> mix,
+                      OperationReport total,
+                      Map<Operation, OperationReport> operations) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final double MAX_ERROR_RATE_INCREASE = 0.01;
+
+    static LoadTestReport read(Path path) throws IOException {
+        return MAPPER.readValue(path.toFile(), LoadTestReport.class);
+    }
+
+    void write(Path path) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        MAPPER.writeValue(path.toFile(), this);
+    }
+
+    List<String> regressionsAgainst(LoadTestReport baseline, double maxRegression) {
+        List<String> regressions = new ArrayList<>();
+        total.regressionsAgainst("total", baseline.total, maxRegression, regressions);
+        operations.forEach((operation, report) -> {
+            OperationReport baselineReport = baseline.operations.get(operation);
+            if (baselineReport != null) {
+                report.regressionsAgainst(operation.getKey(), baselineReport, maxRegression, regressions);
+            }
+        });
+        return regressions;
+    }
+
+    record OperationReport(long requests,
+                           long errors,
+                           double errorRate,
+                           double throughput,
+                           double p50Millis,
+                           double p90Millis,
+                           double p99Millis,
+                           double maxMillis,
+                           Map<String, Long> outcomes) {
+
+        private void regressionsAgainst(String name, OperationReport baseline, double maxRegression,
+                                        List<String> regressions) {
+            if (p50Millis > baseline.p50Millis * (1 + maxRegression)) {
+                regressions.add("%s p50 %.2fms exceeds baseline %.2fms".formatted(name, p50Millis, baseline.p50Millis));
+            }
+            if (p99Millis > baseline.p99Millis * (1 + maxRegression)) {
+                regressions.add("%s p99 %.2fms exceeds baseline %.2fms".formatted(name, p99Millis, baseline.p99Millis));
+            }
+            if (throughput < baseline.throughput * (1 - maxRegression)) {
+                regressions.add("%s throughput %.1f/s is below baseline %.1f/s"
+                        .formatted(name, throughput, baseline.throughput));
+            }
+            if (errorRate > baseline.errorRate + MAX_ERROR_RATE_INCREASE) {
+                regressions.add("%s error rate %.4f exceeds baseline %.4f"
+                        .formatted(name, errorRate, baseline.errorRate));
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.whatstheplan.users.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read from {@code loadTest.*} system properties, which the {@code loadTest} Gradle task forwards from
+ * project properties, e.g. {@code gradle loadTest -PloadTest.rps=500 -PloadTest.duration=60s}. A duplicate-heavy
+ * signup burst is {@code -PloadTest.mix=createDuplicateProfile=80,createProfile=20}, and error-heavy traffic
+ * {@code -PloadTest.mix=getMissingBasicInfo=60,createDuplicateProfile=20,getBasicInfo=20}. {@code batchSizes} and
+ * {@code iterations} drive {@link BatchLookupLoadTest}, e.g. {@code -PloadTest.batchSizes=1,10,100,1000}.
+ */
+record LoadTestSettings(int rps,
+                        boolean virtualThreads,
+                        Duration warmup,
+                        Duration duration,
+                        int maxInFlight,
+                        int users,
+                        int batchSize,
+                        List<Integer> batchSizes,
+                        int iterations,
+                        Map<Operation, Integer> mix,
+                        Path report,
+                        Path baseline,
+                        double maxRegression) {
+
+    private static final String PREFIX = "loadTest.";
+
+    static LoadTestSettings fromSystemProperties() {
+        String baseline = property("baseline", "");
+        return new LoadTestSettings(
+                Integer.parseInt(property("rps", "200")),
+                virtualThreadsEnabled(),
+                Duration.parse("PT" + property("warmup", "10s")),
+                Duration.parse("PT" + property("duration", "30s")),
+                Integer.parseInt(property("maxInFlight", "256")),
+                Integer.parseInt(property("users", "1000")),
+                Integer.parseInt(property("batchSize", "100")),
+                Arrays.stream(property("batchSizes", "1,10,100,1000").split(","))
+                        .map(String::trim)
+                        .map(Integer::valueOf)
+                        .toList(),
+                Integer.parseInt(property("iterations", "20")),
+                parseMix(property("mix",
+                        "getProfile=50,getBasicInfo=30,getBasicInfoBatch=5,createProfile=5,updateProfile=10")),
+                Path.of(property("report", "build/reports/load-test/results.json")),
+                baseline.isBlank() ? null : Path.of(baseline),
+                Double.parseDouble(property("maxRegression", "0.25")));
+    }
+
+    static boolean virtualThreadsEnabled() {
+        return Boolean.parseBoolean(property("virtualThreads", "false"));
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] keyAndWeight = entry.trim().split("=");
+            int weight = Integer.parseInt(keyAndWeight[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.fromKey(keyAndWeight[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Load test mix must contain at least one weighted operation: " + mix);
+        }
+        return weights;
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty(PREFIX + name, defaultValue);
+    }
+}
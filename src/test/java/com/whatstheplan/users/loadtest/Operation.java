@@ -0,0 +1,39 @@
+package com.whatstheplan.users.loadtest;
+
+import java.util.Arrays;
+
+enum Operation {
+    GET_PROFILE("getProfile"),
+    GET_BASIC_INFO("getBasicInfo"),
+    // Asks for an id nobody has, so the expected answer is the 400 for an unknown user.
+    GET_MISSING_BASIC_INFO("getMissingBasicInfo"),
+    GET_BASIC_INFO_BATCH("getBasicInfoBatch"),
+    CREATE_PROFILE("createProfile"),
+    // Signs up with a seeded username, so the expected answer is the 400 for a taken username.
+    CREATE_DUPLICATE_PROFILE("createDuplicateProfile"),
+    UPDATE_PROFILE("updateProfile");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    boolean isError(int status) {
+        return switch (this) {
+            case GET_MISSING_BASIC_INFO, CREATE_DUPLICATE_PROFILE -> status != 400;
+            default -> status >= 400;
+        };
+    }
+
+    static Operation fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown load test operation: " + key));
+    }
+}
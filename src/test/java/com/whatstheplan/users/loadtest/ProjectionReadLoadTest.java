@@ -0,0 +1,137 @@
+package com.whatstheplan.users.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.entities.Preferences;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.projection.UserProfileRowView;
+import com.whatstheplan.users.model.response.BasicUserResponse;
+import com.whatstheplan.users.model.response.UserResponse;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the database path of the basic-info and profile reads, comparing the column projections they use with
+ * loading the {@link User} entity and its eager preferences as they did before. Caches are bypassed by calling the
+ * repositories directly. Run it alone with {@code gradle loadTest --tests '*ProjectionReadLoadTest'}; each round
+ * reads all {@code loadTest.users} seeded users, and the results are written next to {@code loadTest.report}.
+ */
+@Tag("load")
+@Import(TestChannelBinderConfiguration.class)
+class ProjectionReadLoadTest extends BaseIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectionReadLoadTest.class);
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int PREFERENCES_PER_USER = 5;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void compareProjectionWithEntityReads() throws Exception {
+        //given
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        List<UUID> userIds = seedUsers(settings.users());
+        Map<String, Function<UUID, Optional<?>>> reads = new LinkedHashMap<>();
+        reads.put("basicInfoEntity", id -> usersRepository.findById(id).map(BasicUserResponse::from));
+        reads.put("basicInfoProjection", id -> usersRepository.findBasicById(id).map(BasicUserResponse::from));
+        reads.put("profileEntity", id -> usersRepository.findById(id).map(UserResponse::from));
+        reads.put("profileProjection", id -> {
+            List<UserProfileRowView> rows = usersRepository.findProfileRowsById(id);
+            return rows.stream().findFirst().map(user -> UserResponse.from(user, rows.stream()
+                    .map(UserProfileRowView::getActivityType)
+                    .toList()));
+        });
+
+        // when
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        Map<String, Long> elapsedNanos = new LinkedHashMap<>();
+        reads.keySet().forEach(read -> {
+            recorders.put(read, new LatencyRecorder());
+            elapsedNanos.put(read, 0L);
+        });
+        for (int round = 0; round < WARMUP_ROUNDS + settings.iterations(); round++) {
+            boolean measured = round >= WARMUP_ROUNDS;
+            reads.forEach((read, lookup) -> {
+                long roundStart = System.nanoTime();
+                for (UUID id : userIds) {
+                    long start = System.nanoTime();
+                    assertThat(lookup.apply(id)).isPresent();
+                    if (measured) {
+                        recorders.get(read).record(System.nanoTime() - start, "found", false);
+                    }
+                }
+                if (measured) {
+                    elapsedNanos.merge(read, System.nanoTime() - roundStart, Long::sum);
+                }
+            });
+        }
+
+        // then
+        Map<String, LoadTestReport.OperationReport> reports = new LinkedHashMap<>();
+        recorders.forEach((read, recorder) -> reports.put(read, recorder.report(elapsedNanos.get(read) / 1e9)));
+        Path report = settings.report().resolveSibling("projection-reads.json");
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), reports);
+        reports.forEach((read, result) -> log.info("{}: p50 {} ms, p99 {} ms, {} reads/s", read, result.p50Millis(),
+                result.p99Millis(), "%.0f".formatted(result.throughput())));
+        log.info("Projection read comparison written to {}", report.toAbsolutePath());
+    }
+
+    private List<UUID> seedUsers(int count) {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String username = "projection-" + Integer.toString(i, 36);
+            Set<ActivityType> activities = EnumSet.copyOf(Arrays.asList(ActivityType.values())
+                    .subList(i % 10, i % 10 + PREFERENCES_PER_USER));
+            User user = User.builder()
+                    .id(UUID.randomUUID())
+                    .username(username)
+                    .email(username + "@example.com")
+                    .firstName("Projection")
+                    .lastName("User")
+                    .city("Madrid")
+                    .activities(activities)
+                    .build();
+            user.setPreferences(activities.stream()
+                    .map(activityType -> new Preferences(null, activityType, user))
+                    .toList());
+            users.add(user);
+        }
+        return usersRepository.saveAll(users).stream()
+                .map(User::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,243 @@
+package com.whatstheplan.users.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.whatstheplan.users.model.ActivityType;
+import com.whatstheplan.users.model.entities.Preferences;
+import com.whatstheplan.users.model.entities.User;
+import com.whatstheplan.users.model.request.BasicUsersBatchRequest;
+import com.whatstheplan.users.model.request.UserProfileRequest;
+import com.whatstheplan.users.repository.PreferencesRepository;
+import com.whatstheplan.users.repository.UsersRepository;
+import com.whatstheplan.users.testconfig.BaseIntegrationTest;
+import com.whatstheplan.users.testconfig.security.StandInIssuer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the real HTTP stack with signed tokens. Excluded from {@code test}; run it with {@code gradle loadTest},
+ * see {@link LoadTestSettings} for the knobs and pass {@code -PloadTest.baseline=<results.json>} to gate on a
+ * previous run.
+ */
+@Tag("load")
+@Import(TestChannelBinderConfiguration.class)
+class UsersLoadTest extends BaseIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(UsersLoadTest.class);
+    private static final StandInIssuer ISSUER = startIssuer();
+    private static final int PREFERENCES_PER_USER = 5;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UsersRepository usersRepository;
+
+    @Autowired
+    private PreferencesRepository preferencesRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicLong createdUsers = new AtomicLong();
+    private List<SeededUser> seededUsers;
+
+    @DynamicPropertySource
+    static void issuerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.security.oauth2.resourceserver.jwt.issuer-uri", ISSUER::getIssuerUri);
+        registry.add("spring.threads.virtual.enabled", LoadTestSettings::virtualThreadsEnabled);
+    }
+
+    @AfterAll
+    static void stopIssuer() {
+        ISSUER.close();
+    }
+
+    @Test
+    void loadUsersApi() throws Exception {
+        //given
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        seedUsers(settings.users());
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        LoadGenerator generator = new LoadGenerator(client, settings, operation -> request(operation, settings));
+
+        // when
+        log.info("Warming up for {} at {} rps", settings.warmup(), settings.rps());
+        generator.run(settings.warmup());
+        log.info("Measuring for {} at {} rps with mix {} on {} threads", settings.duration(), settings.rps(),
+                settings.mix(), settings.virtualThreads() ? "virtual" : "platform");
+        Instant startedAt = Instant.now();
+        Map<Operation, LatencyRecorder> recorders = generator.run(settings.duration());
+        double elapsedSeconds = Duration.between(startedAt, Instant.now()).toMillis() / 1000.0;
+
+        // then
+        LoadTestReport report = report(settings, startedAt, elapsedSeconds, recorders);
+        report.write(settings.report());
+        log.info("Load test results written to {}:\n{}", settings.report().toAbsolutePath(),
+                objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report.total()));
+
+        if (settings.baseline() != null) {
+            LoadTestReport baseline = LoadTestReport.read(settings.baseline());
+            assertThat(report.regressionsAgainst(baseline, settings.maxRegression()))
+                    .as("regressions against baseline %s", settings.baseline())
+                    .isEmpty();
+        }
+    }
+
+    private HttpRequest request(Operation operation, LoadTestSettings settings) {
+        SeededUser user = randomSeededUser();
+        return switch (operation) {
+            case GET_PROFILE -> authorized("/users", user.token()).GET().build();
+            case GET_BASIC_INFO -> authorized("/users-info/" + randomSeededUser().id(), user.token()).GET().build();
+            case GET_MISSING_BASIC_INFO -> authorized("/users-info/" + UUID.randomUUID(), user.token()).GET().build();
+            case GET_BASIC_INFO_BATCH -> {
+                List<UUID> userIds = IntStream.range(0, settings.batchSize())
+                        .mapToObj(i -> randomSeededUser().id())
+                        .toList();
+                yield authorized("/users-info/batch", user.token())
+                        .POST(json(new BasicUsersBatchRequest(userIds)))
+                        .build();
+            }
+            case CREATE_PROFILE -> {
+                long sequence = createdUsers.incrementAndGet();
+                UUID userId = UUID.randomUUID();
+                String token = ISSUER.mint(userId, "load-" + sequence + "@example.com");
+                yield authorized("/users", token)
+                        .POST(json(profileRequest("new-" + Long.toString(sequence, 36), "Madrid")))
+                        .build();
+            }
+            case CREATE_DUPLICATE_PROFILE -> {
+                long sequence = createdUsers.incrementAndGet();
+                String token = ISSUER.mint(UUID.randomUUID(), "load-" + sequence + "@example.com");
+                yield authorized("/users", token)
+                        .POST(json(profileRequest(user.username(), "Madrid")))
+                        .build();
+            }
+            case UPDATE_PROFILE -> authorized("/users", user.token())
+                    .PUT(json(profileRequest(user.username(), "City " + ThreadLocalRandom.current().nextInt(100))))
+                    .build();
+        };
+    }
+
+    private HttpRequest.Builder authorized(String path, String token) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(10))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static UserProfileRequest profileRequest(String username, String city) {
+        return UserProfileRequest.builder()
+                .username(username)
+                .firstName("Load")
+                .lastName("Test")
+                .city(city)
+                .preferences(randomActivities().stream().map(ActivityType::getName).toList())
+                .build();
+    }
+
+    private SeededUser randomSeededUser() {
+        return seededUsers.get(ThreadLocalRandom.current().nextInt(seededUsers.size()));
+    }
+
+    private void seedUsers(int count) {
+        usersRepository.deleteAll();
+        preferencesRepository.deleteAll();
+
+        List<User> users = new ArrayList<>(count);
+        seededUsers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            UUID userId = UUID.randomUUID();
+            String username = "seed-" + Integer.toString(i, 36);
+            String email = username + "@example.com";
+            Set<ActivityType> activities = randomActivities();
+            User user = User.builder()
+                    .id(userId)
+                    .username(username)
+                    .email(email)
+                    .firstName("Seed")
+                    .lastName("User")
+                    .city("Madrid")
+                    .activities(activities)
+                    .build();
+            user.setPreferences(activities.stream()
+                    .map(activityType -> new Preferences(null, activityType, user))
+                    .toList());
+            users.add(user);
+            seededUsers.add(new SeededUser(userId, username, ISSUER.mint(userId, email)));
+        }
+        usersRepository.saveAll(users);
+    }
+
+    private static Set<ActivityType> randomActivities() {
+        ActivityType[] values = ActivityType.values();
+        Set<ActivityType> activities = EnumSet.noneOf(ActivityType.class);
+        while (activities.size() < PREFERENCES_PER_USER) {
+            activities.add(values[ThreadLocalRandom.current().nextInt(values.length)]);
+        }
+        return activities;
+    }
+
+    private static LoadTestReport report(LoadTestSettings settings, Instant startedAt, double elapsedSeconds,
+                                         Map<Operation, LatencyRecorder> recorders) {
+        LatencyRecorder total = new LatencyRecorder();
+        Map<Operation, LoadTestReport.OperationReport> operations = new EnumMap<>(Operation.class);
+        recorders.forEach((operation, recorder) -> {
+            total.recordAll(recorder);
+            operations.put(operation, recorder.report(elapsedSeconds));
+        });
+        return new LoadTestReport(startedAt.toString(), Runtime.version().toString(), settings.virtualThreads(),
+                settings.rps(), elapsedSeconds, settings.mix(),
+                total.report(elapsedSeconds), operations);
+    }
+
+    private static StandInIssuer startIssuer() {
+        try {
+            return new StandInIssuer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record SeededUser(UUID id, String username, String token) {
+    }
+}
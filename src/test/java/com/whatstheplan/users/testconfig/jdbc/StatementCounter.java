@@ -0,0 +1,132 @@
+package com.whatstheplan.users.testconfig.jdbc;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Records every statement round trip sent through the wrapped {@link DataSource}: a single
+ * execution or a whole JDBC batch each count as one.
+ */
+public class StatementCounter {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final List<ExecutedStatement> statements = new CopyOnWriteArrayList<>();
+
+    public void reset() {
+        statements.clear();
+    }
+
+    public List<String> getStatements() {
+        return statements.stream()
+                .map(ExecutedStatement::sql)
+                .toList();
+    }
+
+    /**
+     * Statements sent by the calling thread only, which excludes background work such as the outbox relay.
+     * MockMvc requests run on the test thread.
+     */
+    public List<String> getStatementsOnCurrentThread() {
+        Thread currentThread = Thread.currentThread();
+        return statements.stream()
+                .filter(statement -> statement.thread() == currentThread)
+                .map(ExecutedStatement::sql)
+                .toList();
+    }
+
+    /**
+     * Counts statements on the calling thread, so background refreshes triggered by change notifications do not
+     * show up as round trips of the request under test.
+     */
+    public long count(String operation, String table) {
+        Pattern pattern = Pattern.compile("^\\s*" + operation + "\\b.*?\\b(users\\.)?" + table + "(?![.\\w]).*",
+                Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+        return getStatementsOnCurrentThread().stream()
+                .filter(sql -> pattern.matcher(sql).matches())
+                .count();
+    }
+
+    public long inserts(String table) {
+        return count("insert\\s+into", table);
+    }
+
+    public long updates(String table) {
+        return count("update", table);
+    }
+
+    public long deletes(String table) {
+        return count("delete\\s+from", table);
+    }
+
+    public long selects(String table) {
+        return count("select", table);
+    }
+
+    public DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection connection ? wrap(connection) : result;
+        });
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return wrap(CallableStatement.class, statement, (String) args[0]);
+            } else if (result instanceof PreparedStatement statement) {
+                return wrap(PreparedStatement.class, statement, (String) args[0]);
+            } else if (result instanceof Statement statement) {
+                return wrap(Statement.class, statement, null);
+            }
+            return result;
+        });
+    }
+
+    private <T extends Statement> T wrap(Class<T> type, T statement, String preparedSql) {
+        return proxy(type, statement, (target, method, args) -> {
+            if (EXECUTE_METHODS.contains(method.getName())) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                statements.add(new ExecutedStatement(Thread.currentThread(),
+                        sql == null ? "" : sql.trim().toLowerCase(Locale.ROOT)));
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, TargetInvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(target, method, args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record ExecutedStatement(Thread thread, String sql) {
+    }
+
+    @FunctionalInterface
+    private interface TargetInvocationHandler {
+        Object invoke(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,28 @@
+package com.whatstheplan.users.testconfig.jdbc;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+@TestConfiguration
+public class StatementCounterConfiguration {
+
+    private static final StatementCounter STATEMENT_COUNTER = new StatementCounter();
+
+    @Bean
+    public StatementCounter statementCounter() {
+        return STATEMENT_COUNTER;
+    }
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? STATEMENT_COUNTER.wrap(dataSource) : bean;
+            }
+        };
+    }
+}
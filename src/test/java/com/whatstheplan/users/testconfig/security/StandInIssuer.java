@@ -0,0 +1,111 @@
+package com.whatstheplan.users.testconfig.security;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal OpenID provider serving discovery and JWKS documents so the application validates
+ * locally minted tokens exactly as it validates Cognito ones.
+ */
+public class StandInIssuer implements AutoCloseable {
+
+    private static final Duration TOKEN_TTL = Duration.ofHours(1);
+
+    private final HttpServer server;
+    private final RSAKey signingKey;
+    private final NimbusJwtEncoder encoder;
+    private final String issuerUri;
+    private final AtomicInteger jwksRequests = new AtomicInteger();
+
+    public StandInIssuer() throws IOException {
+        signingKey = generateSigningKey();
+        encoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(signingKey)));
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        issuerUri = "http://127.0.0.1:" + server.getAddress().getPort();
+        server.createContext("/.well-known/openid-configuration", exchange -> respond(exchange, """
+                {"issuer":"%s","jwks_uri":"%s/.well-known/jwks.json","subject_types_supported":["public"],\
+                "id_token_signing_alg_values_supported":["RS256"]}""".formatted(issuerUri, issuerUri)));
+        server.createContext("/.well-known/jwks.json", exchange -> {
+            jwksRequests.incrementAndGet();
+            respond(exchange, new JWKSet(signingKey.toPublicJWK()).toString());
+        });
+        server.start();
+    }
+
+    public String getIssuerUri() {
+        return issuerUri;
+    }
+
+    public String mint(UUID userId, String email) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(issuerUri)
+                .subject(userId.toString())
+                .claim("email", email)
+                .claim("cognito:groups", List.of("user"))
+                .issuedAt(now)
+                .expiresAt(now.plus(TOKEN_TTL))
+                .build();
+        JwsHeader header = JwsHeader.with(SignatureAlgorithm.RS256)
+                .keyId(signingKey.getKeyID())
+                .build();
+        return encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+
+    public int getJwksRequests() {
+        return jwksRequests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private static RSAKey generateSigningKey() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            KeyPair keyPair = generator.generateKeyPair();
+            return new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+                    .privateKey((RSAPrivateKey) keyPair.getPrivate())
+                    .keyID(UUID.randomUUID().toString())
+                    .build();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("RSA is not available", e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}